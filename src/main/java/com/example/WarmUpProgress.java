@@ -0,0 +1,89 @@
+package com.example;
+
+import com.example.exception.WeatherApiException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of a cache warm-up started with {@link WeatherSdk#warmUp(java.util.Collection, int)}.
+ *
+ * <p>Counts are updated while the warm-up runs. {@link #getCompletion()} completes with
+ * this object once every city has been loaded or has failed; cancelling it stops the
+ * warm-up from starting further loads.</p>
+ *
+ * @author Weather SDK Team
+ */
+public final class WarmUpProgress {
+    private final int totalCount;
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final Map<String, WeatherApiException> failures = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final CompletableFuture<WarmUpProgress> completion = new CompletableFuture<>();
+
+    WarmUpProgress(int totalCount) {
+        this.totalCount = totalCount;
+        if (totalCount == 0) {
+            completion.complete(this);
+        }
+    }
+
+    public int getTotalCount() { return totalCount; }
+    public int getSucceededCount() { return succeeded.get(); }
+    public int getFailedCount() { return failed.get(); }
+
+    /**
+     * Gets the number of cities that have finished, successfully or not.
+     *
+     * @return completed cities, from 0 to {@link #getTotalCount()}
+     */
+    public int getCompletedCount() {
+        return succeeded.get() + failed.get();
+    }
+
+    /**
+     * Gets the cities that could not be loaded so far.
+     *
+     * @return copy of the errors keyed by city name as given, in the order they failed
+     */
+    public Map<String, WeatherApiException> getFailures() {
+        synchronized (failures) {
+            return new LinkedHashMap<>(failures);
+        }
+    }
+
+    /**
+     * Gets the future of the whole warm-up.
+     *
+     * @return future completed with this object when all cities have finished
+     */
+    public CompletableFuture<WarmUpProgress> getCompletion() {
+        return completion;
+    }
+
+    void recordSuccess() {
+        succeeded.incrementAndGet();
+        completeIfFinished();
+    }
+
+    void recordFailure(String cityName, WeatherApiException error) {
+        failures.put(cityName, error);
+        failed.incrementAndGet();
+        completeIfFinished();
+    }
+
+    private void completeIfFinished() {
+        if (getCompletedCount() == totalCount) {
+            completion.complete(this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "WarmUpProgress{totalCount=" + totalCount + ", succeededCount=" + succeeded.get()
+                + ", failedCount=" + failed.get() + "}";
+    }
+}
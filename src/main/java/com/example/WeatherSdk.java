@@ -1,26 +1,55 @@
 package com.example;
 
+import com.example.model.CircuitBreakerState;
+import com.example.model.PollingCycleStats;
 import com.example.model.WeatherData;
+import com.example.model.WeatherLookupResult;
+import com.example.cache.BoundedCache;
+import com.example.cache.CacheSnapshot;
+import com.example.cache.CacheStats;
+import com.example.cache.CoordinateCache;
+import com.example.cache.EvictionPolicy;
+import com.example.cache.ExpiryPolicy;
+import com.example.cache.GeocodingCache;
+import com.example.cache.NegativeCache;
+import com.example.cache.StatsCounter;
 import com.example.cache.WeatherCacheEntry;
+import com.example.cache.Weigher;
+import com.example.exception.CircuitBreakerOpenException;
+import com.example.exception.CityNotFoundException;
 import com.example.exception.WeatherApiException;
 import com.example.config.SdkMode;
-import com.example.config.WeatherConfig;
+import com.example.internal.CircuitBreaker;
+import com.example.internal.CityNames;
+import com.example.internal.Futures;
+import com.example.internal.HedgingPolicy;
+import com.example.internal.RateLimiter;
+import com.example.internal.RetryPolicy;
+import com.example.internal.SharedTransport;
+import com.example.internal.SingleFlight;
+import com.example.internal.VirtualThreads;
+import com.example.internal.WeatherApiClient;
 import java.lang.AutoCloseable;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.URLEncoder;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * SDK for working with OpenWeather API.
@@ -28,8 +57,9 @@ import java.util.concurrent.TimeUnit;
  * <p>Main features:</p>
  * <ul>
  *   <li>Get current weather by city name</li>
- *   <li>Automatic data caching (up to 10 cities, valid for 10 minutes)</li>
- *   <li>Two operation modes: ON_DEMAND and POLLING</li>
+ *   <li>Non-blocking variants returning {@link CompletableFuture}</li>
+ *   <li>Automatic data caching (up to 10 cities, valid for 10 minutes, configurable via {@link #builder(String)})</li>
+ *   <li>Three operation modes: ON_DEMAND, POLLING and STALE_WHILE_REVALIDATE</li>
  *   <li>Instance management via Registry Pattern</li>
  *   <li>Supports try-with-resources for automatic resource cleanup</li>
  * </ul>
@@ -57,13 +87,14 @@ import java.util.concurrent.TimeUnit;
  * <ul>
  *   <li><b>ON_DEMAND</b> - data is updated only on client request</li>
  *   <li><b>POLLING</b> - automatic data update for all cached cities every 5 minutes</li>
+ *   <li><b>STALE_WHILE_REVALIDATE</b> - expired data is returned immediately and refreshed in the background</li>
  * </ul>
  * 
  * <p><b>Caching:</b></p>
  * <ul>
- *   <li>Maximum 10 cities in cache</li>
- *   <li>Data is valid for 10 minutes</li>
- *   <li>Uses LRU (Least Recently Used) algorithm for eviction</li>
+ *   <li>Maximum 10 cities in cache by default ({@link Builder#cacheCapacity(long)})</li>
+ *   <li>Data is valid for 10 minutes by default ({@link Builder#cacheTtl(Duration)})</li>
+ *   <li>Uses LRU (Least Recently Used) or W-TinyLFU eviction</li>
  * </ul>
  * 
  * @author Weather SDK Team
@@ -71,20 +102,78 @@ import java.util.concurrent.TimeUnit;
  * @since 1.0
  */
 public class WeatherSdk implements AutoCloseable {
-    private static final int MAX_CACHE_SIZE = 10;
-    private static final long CACHE_TTL_SECONDS = 600; // 10 минут
+    /** Default maximum number of cities in cache. */
+    public static final int DEFAULT_CACHE_CAPACITY = 10;
+    /** Default time during which cached data is considered up-to-date. */
+    public static final Duration DEFAULT_CACHE_TTL = Duration.ofMinutes(10);
+    /** Default interval between updates in POLLING mode. */
+    public static final Duration DEFAULT_POLLING_INTERVAL = Duration.ofMinutes(5);
+    /** Default maximum number of concurrent refreshes in one POLLING mode cycle. */
+    public static final int DEFAULT_POLLING_CONCURRENCY = 16;
+    /** Default maximum number of concurrent API loads in one bulk request. */
+    public static final int DEFAULT_BULK_PARALLELISM = 16;
+    /** Default maximum number of API requests per second sent by {@link #warmUp(Collection, int)}. */
+    public static final double DEFAULT_WARM_UP_RATE = 10;
+    /** Default age after which STALE_WHILE_REVALIDATE mode stops serving stale data. */
+    public static final Duration DEFAULT_HARD_TTL = Duration.ofHours(1);
+    /** Default interval between cache snapshots when a snapshot file is configured. */
+    public static final Duration DEFAULT_SNAPSHOT_INTERVAL = Duration.ofMinutes(5);
+    /** Default longest time a request waits for a rate limit token before it is rejected. */
+    public static final Duration DEFAULT_RATE_LIMIT_MAX_WAIT = Duration.ofSeconds(10);
+    /** Default number of retries of a request after a transient failure. */
+    public static final int DEFAULT_MAX_RETRIES = 2;
+    /** Default upper bound of the first retry backoff. */
+    public static final Duration DEFAULT_RETRY_BASE_DELAY = Duration.ofMillis(200);
+    /** Default cap of the retry backoff. */
+    public static final Duration DEFAULT_RETRY_MAX_DELAY = Duration.ofSeconds(5);
+    /** Default time budget of one API call, including retries. */
+    public static final Duration DEFAULT_REQUEST_DEADLINE = Duration.ofSeconds(30);
+    /** Default share of failed API requests that opens the circuit breaker. */
+    public static final double DEFAULT_CIRCUIT_BREAKER_FAILURE_RATE = 0.5;
+    /** Default number of recent API requests the circuit breaker failure rate is computed over. */
+    public static final int DEFAULT_CIRCUIT_BREAKER_WINDOW_SIZE = 20;
+    /** Default time an open circuit breaker rejects requests before probing the API again. */
+    public static final Duration DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION = Duration.ofSeconds(30);
+    /** Default share of extra requests hedging may send, relative to weather requests. */
+    public static final double DEFAULT_HEDGE_BUDGET = 0.05;
+    private static final int REFRESH_THREADS = 4;
+    private static final long CLEAN_UP_INTERVAL_MILLIS = 1_000;
     
     private final String apiKey;
     private final SdkMode mode;
-    private final HttpClient httpClient;
+    private final SharedTransport transport; // shared by all registry instances
     private final ObjectMapper objectMapper;
-    private final Map<String, WeatherCacheEntry> cache;
-    private final Map<String, String> originalCityNames; // Stores original city names
-    private final LinkedHashMap<String, Instant> accessOrder; // For LRU
-    private final Object cacheLock = new Object();
-    private ScheduledExecutorService pollingExecutor;
+    private final BoundedCache<String, WeatherCacheEntry> cache; // keyed by normalized city name
+    private final StatsCounter stats = new StatsCounter(); // lookups and loads of the city cache
+    private final long cacheTtlSeconds; // for entries without an expiration time, e.g. restored ones
+    private final ExpiryPolicy expiryPolicy;
+    private final long hardTtlSeconds;
+    private final boolean keepsExpiredEntries; // until the hard TTL, to be served stale
+    private final GeocodingCache geocodingCache;
+    private final NegativeCache negativeCache; // names the Geocoding API did not find
+    private final CoordinateCache coordinateCache;
+    private final Duration pollingInterval;
+    private final int pollingConcurrency;
+    private final int bulkParallelism;
+    private final double warmUpRate;
+    private volatile PollingCycleStats lastPollingCycle;
+    private final ScheduledExecutorService backgroundExecutor;
+    private final boolean ownsBackgroundExecutor;
+    private final boolean virtualThreads;
+    private final ExecutorService refreshExecutor; // virtual thread per blocking refresh; null = backgroundExecutor
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet(); // keys with a background refresh running
+    private final Path snapshotFile;
+    private final Object pollingLock = new Object();
+    private ScheduledFuture<?> pollingTask; // guarded by pollingLock
+    private ScheduledFuture<?> snapshotTask;
+    private ScheduledFuture<?> cleanUpTask;
     private volatile boolean isRunning = true;
-    private final com.example.internal.WeatherApiClient apiClient;
+    private final AtomicBoolean isShutDown = new AtomicBoolean();
+    private final WeatherApiClient apiClient;
+    private final RateLimiter rateLimiter; // null = unlimited
+    private final CircuitBreaker circuitBreaker; // null = disabled
+    private final SingleFlight<String, WeatherData> inFlightLoads = new SingleFlight<>(); // keyed by normalized city name
+    private final SingleFlight<Long, WeatherData> inFlightCoordinateLoads = new SingleFlight<>(); // keyed by grid cell
     
     /**
      * Creates SDK with specified API key and operation mode
@@ -103,35 +192,102 @@ public class WeatherSdk implements AutoCloseable {
         }
     }
 
-    private WeatherSdk(String apiKey, SdkMode mode) throws WeatherApiException {
-        if (apiKey == null || apiKey.trim().isEmpty()) {
-            throw new WeatherApiException("API ключ не может быть пустым");
+    private WeatherSdk(Builder builder) throws WeatherApiException {
+        this.apiKey = builder.apiKey;
+        this.mode = builder.mode;
+        this.transport = SharedTransport.acquire();
+        this.objectMapper = transport.getObjectMapper();
+        this.cacheTtlSeconds = builder.cacheTtl.getSeconds();
+        this.expiryPolicy = builder.expiryPolicy != null ? builder.expiryPolicy : ExpiryPolicy.fixed(builder.cacheTtl);
+        this.hardTtlSeconds = builder.hardTtl != null
+                ? builder.hardTtl.getSeconds()
+                : Math.max(DEFAULT_HARD_TTL.getSeconds(), cacheTtlSeconds);
+        // Expired data is kept until the hard TTL where it may be served stale, otherwise only until it expires;
+        // the cache's timer wheel then removes it. Polled cities stay cached so that polling keeps refreshing them.
+        // A custom expiry policy also gets the expired entry as the previous one when the city is reloaded.
+        this.keepsExpiredEntries = mode != SdkMode.ON_DEMAND || builder.circuitBreakerServesStale
+                || builder.expiryPolicy != null;
+        Duration retention = mode == SdkMode.POLLING ? null
+                : keepsExpiredEntries ? Duration.ofSeconds(hardTtlSeconds) : builder.cacheTtl;
+        this.cache = builder.cacheMaximumWeight != null
+                ? new BoundedCache<>(builder.cacheMaximumWeight, builder.cacheWeigher, retention, builder.evictionPolicy)
+                : new BoundedCache<>(builder.cacheCapacity, retention, builder.evictionPolicy);
+        this.geocodingCache = new GeocodingCache(builder.geocodingCacheCapacity, builder.geocodingCacheTtl);
+        this.negativeCache = new NegativeCache(NegativeCache.DEFAULT_CAPACITY, builder.negativeCacheTtl,
+                builder.unknownCityFilterCapacity, NegativeCache.DEFAULT_FILTER_RETENTION);
+        this.coordinateCache = new CoordinateCache(builder.coordinateCacheCapacity, builder.coordinatePrecision);
+        this.pollingInterval = builder.pollingInterval;
+        this.pollingConcurrency = builder.pollingConcurrency;
+        this.bulkParallelism = builder.bulkParallelism;
+        this.warmUpRate = builder.warmUpRate;
+        this.snapshotFile = builder.snapshotFile;
+        // Shared by on-demand loads and the polling loop, since both go through the client
+        this.rateLimiter = builder.rateLimit != null
+                ? new RateLimiter(builder.rateLimit, builder.rateLimitBurst != null
+                        ? builder.rateLimitBurst : (int) Math.ceil(builder.rateLimit), builder.rateLimitMaxWait)
+                : null;
+        this.circuitBreaker = builder.circuitBreakerEnabled
+                ? new CircuitBreaker(builder.circuitBreakerFailureRate, builder.circuitBreakerWindowSize,
+                        builder.circuitBreakerOpenDuration)
+                : null;
+        HedgingPolicy hedgingPolicy = builder.hedgePercentile != null
+                ? new HedgingPolicy(builder.hedgePercentile, builder.hedgeBudget)
+                : null;
+        try {
+            this.apiClient = builder.apiClient != null ? builder.apiClient
+                    : new WeatherApiClient(this.apiKey, transport.getHttpClient(), objectMapper, rateLimiter,
+                            new RetryPolicy(builder.maxRetries, builder.retryBaseDelay, builder.retryMaxDelay,
+                                    builder.requestDeadline), circuitBreaker, hedgingPolicy);
+        } catch (WeatherApiException e) {
+            transport.release();
+            throw e;
         }
-        if (mode == null) {
-            throw new WeatherApiException("Режим работы не может быть null");
+        
+        if (snapshotFile != null) {
+            loadSnapshot();
         }
         
-        this.apiKey = apiKey.trim();
-        this.mode = mode;
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
-        this.objectMapper = new ObjectMapper();
-        this.cache = new HashMap<>();
-        this.originalCityNames = new HashMap<>();
-        this.accessOrder = new LinkedHashMap<>(16, 0.75f, true); // LRU order
+        this.virtualThreads = builder.virtualThreads && VirtualThreads.isAvailable();
+        if (mode == SdkMode.ON_DEMAND && snapshotFile == null) {
+            this.ownsBackgroundExecutor = false;
+            this.backgroundExecutor = null;
+        } else if (builder.executor != null) {
+            this.ownsBackgroundExecutor = false;
+            this.backgroundExecutor = builder.executor;
+        } else {
+            this.ownsBackgroundExecutor = true;
+            this.backgroundExecutor = mode == SdkMode.POLLING
+                    ? createBackgroundExecutor("WeatherSdk-Polling", 1)
+                    : mode == SdkMode.STALE_WHILE_REVALIDATE && !virtualThreads
+                    ? createBackgroundExecutor("WeatherSdk-Refresh", REFRESH_THREADS)
+                    : createBackgroundExecutor("WeatherSdk-Snapshot", 1);
+        }
+        // Blocking refreshes park a virtual thread each instead of queueing for the pool
+        this.refreshExecutor = virtualThreads && mode == SdkMode.STALE_WHILE_REVALIDATE
+                ? VirtualThreads.newThreadPerTaskExecutor("WeatherSdk-Refresh")
+                : null;
         
+        // Reads and writes also remove expired entries, which is all ON_DEMAND mode without an executor does
+        if (backgroundExecutor != null) {
+            cleanUpTask = backgroundExecutor.scheduleWithFixedDelay(
+                    this::cleanUpCaches, CLEAN_UP_INTERVAL_MILLIS, CLEAN_UP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
         if (mode == SdkMode.POLLING) {
             startPolling();
         }
-        this.apiClient = new com.example.internal.WeatherApiClient(this.apiKey);
+        if (snapshotFile != null) {
+            long intervalMillis = builder.snapshotInterval.toMillis();
+            snapshotTask = backgroundExecutor.scheduleWithFixedDelay(
+                    this::writeSnapshot, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
     }
     
     /**
      * Gets current weather by city name.
      * 
      * <p>Returns weather data for the first found city with the specified name.
-     * If data is already cached and valid (less than 10 minutes old),
+     * If data is already cached and valid (younger than the configured TTL,
+     * 10 minutes by default, or as decided by the {@link Builder#expiryPolicy(ExpiryPolicy)}),
      * returns from cache without API request.</p>
      * 
      * <p><b>Usage example:</b></p>
@@ -152,177 +308,734 @@ public class WeatherSdk implements AutoCloseable {
      *   </ul>
      */
     public WeatherData getCurrentWeather(String cityName) throws WeatherApiException {
-        if (cityName == null || cityName.trim().isEmpty()) {
+        if (CityNames.isBlank(cityName)) {
             throw new WeatherApiException("City name cannot be empty");
         }
 
-        String normalizedCityName = cityName.trim().toLowerCase();
+        // The hit path allocates nothing: no normalized copy of the name, no Instant
+        WeatherCacheEntry cached = cache.get(CityNames.lookupKey(cityName));
+        if (cached != null && cached.isFresh(cacheTtlSeconds)) {
+            stats.recordHit();
+            return cached.getWeatherData();
+        }
+        boolean servableWhenStale = recordStaleOrMiss(cached);
 
-        synchronized (cacheLock) {
-            WeatherCacheEntry cached = cache.get(normalizedCityName);
-            if (cached != null && cached.isUpToDate(CACHE_TTL_SECONDS)) {
-                accessOrder.put(normalizedCityName, Instant.now());
-                return cached.getWeatherData();
-            }
+        String normalizedCityName = CityNames.normalize(cityName);
+
+        String trimmedCityName = cityName.trim();
+        if (cached == null && isKnownUnknown(normalizedCityName)) {
+            throw new CityNotFoundException("City not found: " + trimmedCityName);
         }
 
-        // Use geocoding to get coordinates for the city
-        com.example.internal.WeatherApiClient.GeocodingResult coords = apiClient.getCoordinatesByCityName(cityName.trim());
-        if (coords == null) {
-            throw new WeatherApiException("City not found: " + cityName);
+        // Concurrent misses for the same city share a single load
+        SingleFlight.Loader<WeatherData> loader = () -> inFlightLoads.execute(normalizedCityName,
+                () -> loadWeather(normalizedCityName, trimmedCityName));
+        if (servableWhenStale) {
+            refreshInBackground(normalizedCityName, loader);
+            return cached.getWeatherData();
+        }
+        return loadOrServeStale(loader, cached);
+    }
+
+    /**
+     * Loads weather for a city from the API and stores it in the cache
+     */
+    private WeatherData loadWeather(String normalizedCityName, String cityName) throws WeatherApiException {
+        long startNanos = System.nanoTime();
+        try {
+            WeatherData weatherData = fetchWeather(normalizedCityName, cityName);
+            stats.recordLoadSuccess(System.nanoTime() - startNanos);
+            return weatherData;
+        } catch (WeatherApiException | RuntimeException e) {
+            stats.recordLoadFailure(System.nanoTime() - startNanos);
+            throw e;
         }
-        WeatherData weatherData = getCurrentWeatherByCoordinates(coords.lat, coords.lon);
+    }
 
-        synchronized (cacheLock) {
-            // LRU cache logic
-            if (cache.size() >= MAX_CACHE_SIZE && !cache.containsKey(normalizedCityName)) {
-                String oldestCity = accessOrder.entrySet().iterator().next().getKey();
-                cache.remove(oldestCity);
-                originalCityNames.remove(oldestCity);
-                accessOrder.remove(oldestCity);
+    private WeatherData fetchWeather(String normalizedCityName, String cityName) throws WeatherApiException {
+        // Coordinates rarely change, so geocoding is only needed on the first lookup
+        WeatherApiClient.GeocodingResult coords = geocodingCache.get(normalizedCityName);
+        if (coords == null) {
+            try {
+                coords = apiClient.getCoordinatesByCityName(cityName);
+                if (coords == null) {
+                    throw new CityNotFoundException("City not found: " + cityName);
+                }
+            } catch (CityNotFoundException e) {
+                negativeCache.markUnknown(normalizedCityName);
+                throw e;
             }
-            cache.put(normalizedCityName, new WeatherCacheEntry(weatherData, Instant.now()));
-            originalCityNames.put(normalizedCityName, cityName.trim());
-            accessOrder.put(normalizedCityName, Instant.now());
+            geocodingCache.put(normalizedCityName, coords);
         }
+        WeatherData weatherData = apiClient.getCurrentWeatherByCoordinates(coords.lat, coords.lon);
+
+        // Eviction happens inside the cache
+        WeatherCacheEntry entry = newCacheEntry(cityName, weatherData, cache.peek(normalizedCityName));
+        putInCache(normalizedCityName, entry);
 
         return weatherData;
     }
 
+    /**
+     * Gets current weather for several cities at once.
+     * 
+     * <p>Cached cities are answered from the cache; the rest are requested concurrently,
+     * at most {@link Builder#bulkParallelism(int)} (16 by default) at a time. Names that differ
+     * only in case or surrounding whitespace are looked up once. A failure for one city does
+     * not fail the others.</p>
+     * 
+     * <p><b>Example:</b></p>
+     * <pre>{@code
+     * Map<String, WeatherLookupResult> results = sdk.getCurrentWeatherBulk(List.of("Moscow", "London"));
+     * WeatherData moscow = results.get("Moscow").getDataOrThrow();
+     * }</pre>
+     * 
+     * @param cityNames city names
+     * @return result for each distinct name as given, in iteration order of {@code cityNames}
+     * @throws WeatherApiException if {@code cityNames} is null or the calling thread is interrupted
+     */
+    public Map<String, WeatherLookupResult> getCurrentWeatherBulk(Collection<String> cityNames)
+            throws WeatherApiException {
+        if (cityNames == null) {
+            throw new WeatherApiException("City names cannot be null");
+        }
+        
+        // One lookup per normalized name, using its first spelling
+        Map<String, String> cityNamesByKey = new LinkedHashMap<>();
+        for (String cityName : cityNames) {
+            if (!CityNames.isBlank(cityName)) {
+                cityNamesByKey.putIfAbsent(CityNames.normalize(cityName), cityName);
+            }
+        }
+        
+        Map<String, WeatherLookupResult> resultsByKey = new ConcurrentHashMap<>();
+        Futures.await(forEachConcurrently(cityNamesByKey.entrySet(), bulkParallelism, entry ->
+                getCurrentWeatherAsync(entry.getValue()).whenComplete((weatherData, error) ->
+                        resultsByKey.put(entry.getKey(), error == null
+                                ? WeatherLookupResult.success(weatherData)
+                                : WeatherLookupResult.failure(Futures.toApiException(error))))));
+        
+        Map<String, WeatherLookupResult> results = new LinkedHashMap<>();
+        for (String cityName : cityNames) {
+            WeatherLookupResult result = !CityNames.isBlank(cityName)
+                    ? resultsByKey.get(CityNames.normalize(cityName))
+                    : WeatherLookupResult.failure(new WeatherApiException("City name cannot be empty"));
+            results.putIfAbsent(cityName, result);
+        }
+        return results;
+    }
+
+    /**
+     * Loads weather for many cities into the cache, e.g. right after a deploy.
+     * 
+     * <p>Runs in the background: at most {@code parallelism} cities are loaded at a time, and
+     * geocoding and weather requests together start no faster than
+     * {@link Builder#warmUpRate(double)} (10 per second by default), on top of any
+     * {@link Builder#rateLimit(double)}. Cities whose data is already up to date are counted
+     * as loaded without a request. Warm-up loads do not count as cache hits or misses in
+     * {@link #getCacheStats()}.</p>
+     * 
+     * <p><b>Example:</b></p>
+     * <pre>{@code
+     * WarmUpProgress progress = sdk.warmUp(knownCities, 8);
+     * progress.getCompletion().join();
+     * progress.getFailures().forEach((city, error) -> log.warn("{}: {}", city, error.getMessage()));
+     * }</pre>
+     * 
+     * @param cityNames city names; names that differ only in case or surrounding whitespace are loaded once
+     * @param parallelism maximum number of cities loaded at a time, must be positive
+     * @return progress of the warm-up, with failures keyed by the first spelling of each name
+     * @throws WeatherApiException if {@code cityNames} is null or {@code parallelism} is not positive
+     */
+    public WarmUpProgress warmUp(Collection<String> cityNames, int parallelism) throws WeatherApiException {
+        if (cityNames == null) {
+            throw new WeatherApiException("City names cannot be null");
+        }
+        if (parallelism <= 0) {
+            throw new WeatherApiException("Parallelism must be positive");
+        }
+        
+        Map<String, String> cityNamesByKey = new LinkedHashMap<>();
+        List<String> emptyNames = new ArrayList<>();
+        for (String cityName : cityNames) {
+            if (CityNames.isBlank(cityName)) {
+                emptyNames.add(cityName);
+            } else {
+                cityNamesByKey.putIfAbsent(CityNames.normalize(cityName), cityName);
+            }
+        }
+        
+        WarmUpProgress progress = new WarmUpProgress(cityNamesByKey.size() + (emptyNames.isEmpty() ? 0 : 1));
+        if (!emptyNames.isEmpty()) {
+            progress.recordFailure(emptyNames.get(0), new WeatherApiException("City name cannot be empty"));
+        }
+        // Queued requests wait as long as it takes; parallelism bounds how many are queued
+        RateLimiter warmUpLimiter = new RateLimiter(warmUpRate, (int) Math.ceil(warmUpRate),
+                Duration.ofNanos(Long.MAX_VALUE));
+        Iterator<Map.Entry<String, String>> pending = cityNamesByKey.entrySet().iterator();
+        for (int i = 0; i < Math.min(parallelism, cityNamesByKey.size()); i++) {
+            warmUpNext(pending, warmUpLimiter, progress);
+        }
+        return progress;
+    }
+    
+    /**
+     * Starts loading the next pending city, and the one after it when that finishes
+     */
+    private void warmUpNext(Iterator<Map.Entry<String, String>> pending, RateLimiter warmUpLimiter,
+                            WarmUpProgress progress) {
+        // Loop over cities that finish at once, so that a warm cache does not recurse per city
+        while (true) {
+            Map.Entry<String, String> entry;
+            synchronized (pending) {
+                if (progress.getCompletion().isDone() || !pending.hasNext()) {
+                    return;
+                }
+                entry = pending.next();
+            }
+            CompletableFuture<WeatherData> future;
+            if (!isRunning) {
+                future = CompletableFuture.failedFuture(new WeatherApiException("SDK is shut down"));
+            } else {
+                future = warmUpCity(entry.getKey(), entry.getValue().trim(), warmUpLimiter);
+            }
+            if (!future.isDone()) {
+                future.whenComplete((weatherData, error) -> {
+                    recordWarmUp(progress, entry.getValue(), error);
+                    warmUpNext(pending, warmUpLimiter, progress);
+                });
+                return;
+            }
+            recordWarmUp(progress, entry.getValue(), future.handle((weatherData, error) -> error).join());
+        }
+    }
+    
+    private static void recordWarmUp(WarmUpProgress progress, String cityName, Throwable error) {
+        if (error == null) {
+            progress.recordSuccess();
+        } else {
+            progress.recordFailure(cityName, Futures.toApiException(error));
+        }
+    }
+    
+    /**
+     * Loads one city for {@link #warmUp(Collection, int)} unless it is cached, after waiting for the warm-up rate
+     */
+    private CompletableFuture<WeatherData> warmUpCity(String normalizedCityName, String cityName,
+                                                      RateLimiter warmUpLimiter) {
+        WeatherCacheEntry cached = cache.peek(normalizedCityName);
+        if (cached != null && cached.isFresh(cacheTtlSeconds)) {
+            return CompletableFuture.completedFuture(cached.getWeatherData());
+        }
+        if (cached == null && isKnownUnknown(normalizedCityName)) {
+            return CompletableFuture.failedFuture(new CityNotFoundException("City not found: " + cityName));
+        }
+        
+        // One token per API request: geocoding is skipped for cities with cached coordinates
+        long delayNanos = warmUpLimiter.reserve();
+        if (geocodingCache.get(normalizedCityName) == null) {
+            delayNanos = warmUpLimiter.reserve();
+        }
+        Supplier<CompletableFuture<WeatherData>> loader = () -> inFlightLoads.executeAsync(normalizedCityName,
+                () -> loadWeatherAsync(normalizedCityName, cityName));
+        if (delayNanos == 0) {
+            return loader.get();
+        }
+        return CompletableFuture.runAsync(() -> { },
+                        CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS))
+                .thenCompose(ignored -> loader.get());
+    }
+    
     /**
      * Gets current weather using coordinates (latitude, longitude)
      *
+     * <p>Coordinates are rounded to the grid configured via
+     * {@link Builder#coordinatePrecision(double)} (0.01° by default), and the weather for the
+     * grid cell center is cached like city data, so nearby lookups share one API request.</p>
+     *
      * @param lat latitude (from -90 to 90)
      * @param lon longitude (from -180 to 180)
      * @return WeatherData object containing weather information
      * @throws WeatherApiException if coordinates are invalid or an error occurs
      */
     public WeatherData getCurrentWeatherByCoordinates(double lat, double lon) throws WeatherApiException {
-        return apiClient.getCurrentWeatherByCoordinates(lat, lon);
+        if (!(lat >= -90 && lat <= 90)) {
+            throw new WeatherApiException("Invalid latitude. Must be between -90 and 90");
+        }
+        if (!(lon >= -180 && lon <= 180)) {
+            throw new WeatherApiException("Invalid longitude. Must be between -180 and 180");
+        }
+
+        long key = coordinateCache.key(lat, lon);
+        WeatherCacheEntry cached = coordinateCache.get(key);
+        if (cached != null && cached.isFresh(cacheTtlSeconds)) {
+            return cached.getWeatherData();
+        }
+
+        SingleFlight.Loader<WeatherData> loader = () -> inFlightCoordinateLoads.execute(key, () -> {
+            // Clamp the cell center so that rounding never leaves the valid range
+            double cellLat = Math.max(-90, Math.min(90, coordinateCache.latitude(key)));
+            double cellLon = Math.max(-180, Math.min(180, coordinateCache.longitude(key)));
+            WeatherData weatherData = apiClient.getCurrentWeatherByCoordinates(cellLat, cellLon);
+            WeatherCacheEntry entry = newCacheEntry(null, weatherData, coordinateCache.get(key));
+            coordinateCache.put(key, entry, retentionNanos(entry));
+            return weatherData;
+        });
+        if (isServableWhenStale(cached)) {
+            refreshInBackground(key, loader);
+            return cached.getWeatherData();
+        }
+        return loadOrServeStale(loader, cached);
     }
     
     /**
-     * Performs request to OpenWeather API
+     * Asynchronously gets current weather for the specified city
+     *
+     * <p>Non-blocking counterpart of {@link #getCurrentWeather(String)}: the geocoding and
+     * weather requests are chained with {@code HttpClient.sendAsync}, so no thread waits for
+     * the network. Cache hits return an already completed future.</p>
+     *
+     * <p><b>Example:</b></p>
+     * <pre>{@code
+     * sdk.getCurrentWeatherAsync("Moscow")
+     *     .thenAccept(weather -> System.out.println(weather.getName()));
+     * }</pre>
+     *
+     * @param cityName city name (e.g., "Moscow", "Москва", "New York")
+     * @return future completed with weather data, or exceptionally with {@link WeatherApiException}
+     *         in the same cases in which {@link #getCurrentWeather(String)} throws it
+     */
+    public CompletableFuture<WeatherData> getCurrentWeatherAsync(String cityName) {
+        if (CityNames.isBlank(cityName)) {
+            return CompletableFuture.failedFuture(new WeatherApiException("City name cannot be empty"));
+        }
+
+        WeatherCacheEntry cached = cache.get(CityNames.lookupKey(cityName));
+        if (cached != null && cached.isFresh(cacheTtlSeconds)) {
+            stats.recordHit();
+            return CompletableFuture.completedFuture(cached.getWeatherData());
+        }
+        boolean servableWhenStale = recordStaleOrMiss(cached);
+
+        String normalizedCityName = CityNames.normalize(cityName);
+
+        String trimmedCityName = cityName.trim();
+        if (cached == null && isKnownUnknown(normalizedCityName)) {
+            return CompletableFuture.failedFuture(new CityNotFoundException("City not found: " + trimmedCityName));
+        }
+
+        // Shares in-flight loads with getCurrentWeather(String)
+        Supplier<CompletableFuture<WeatherData>> loader = () -> inFlightLoads.executeAsync(normalizedCityName,
+                () -> loadWeatherAsync(normalizedCityName, trimmedCityName));
+        if (servableWhenStale) {
+            refreshAsync(normalizedCityName, loader);
+            return CompletableFuture.completedFuture(cached.getWeatherData());
+        }
+        return loadOrServeStaleAsync(loader.get(), cached);
+    }
+
+    /**
+     * Loads weather for a city from the API without blocking and stores it in the cache
+     */
+    private CompletableFuture<WeatherData> loadWeatherAsync(String normalizedCityName, String cityName) {
+        long startNanos = System.nanoTime();
+        return fetchWeatherAsync(normalizedCityName, cityName).whenComplete((weatherData, error) -> {
+            if (error == null) {
+                stats.recordLoadSuccess(System.nanoTime() - startNanos);
+            } else {
+                stats.recordLoadFailure(System.nanoTime() - startNanos);
+            }
+        });
+    }
+
+    private CompletableFuture<WeatherData> fetchWeatherAsync(String normalizedCityName, String cityName) {
+        WeatherApiClient.GeocodingResult cachedCoords = geocodingCache.get(normalizedCityName);
+        CompletableFuture<WeatherApiClient.GeocodingResult> coordsFuture = cachedCoords != null
+                ? CompletableFuture.completedFuture(cachedCoords)
+                : apiClient.getCoordinatesByCityNameAsync(cityName).handle((coords, error) -> {
+                    Throwable failure = error != null ? Futures.unwrap(error)
+                            : coords == null ? new CityNotFoundException("City not found: " + cityName) : null;
+                    if (failure instanceof CityNotFoundException) {
+                        negativeCache.markUnknown(normalizedCityName);
+                    }
+                    if (failure != null) {
+                        throw Futures.wrap(failure);
+                    }
+                    geocodingCache.put(normalizedCityName, coords);
+                    return coords;
+                });
+
+        return coordsFuture
+                .thenCompose(coords -> apiClient.getCurrentWeatherByCoordinatesAsync(coords.lat, coords.lon))
+                .thenApply(weatherData -> {
+                    WeatherCacheEntry entry = newCacheEntry(cityName, weatherData, cache.peek(normalizedCityName));
+                    putInCache(normalizedCityName, entry);
+                    return weatherData;
+                });
+    }
+
+    /**
+     * Asynchronously gets current weather using coordinates (latitude, longitude)
+     *
+     * <p>Non-blocking counterpart of {@link #getCurrentWeatherByCoordinates(double, double)}
+     * that shares its grid cache. Cache hits return an already completed future.</p>
+     *
+     * @param lat latitude (from -90 to 90)
+     * @param lon longitude (from -180 to 180)
+     * @return future completed with weather data, or exceptionally with {@link WeatherApiException}
+     *         if coordinates are invalid or an error occurs
+     */
+    public CompletableFuture<WeatherData> getCurrentWeatherByCoordinatesAsync(double lat, double lon) {
+        if (!(lat >= -90 && lat <= 90)) {
+            return CompletableFuture.failedFuture(
+                    new WeatherApiException("Invalid latitude. Must be between -90 and 90"));
+        }
+        if (!(lon >= -180 && lon <= 180)) {
+            return CompletableFuture.failedFuture(
+                    new WeatherApiException("Invalid longitude. Must be between -180 and 180"));
+        }
+
+        long key = coordinateCache.key(lat, lon);
+        WeatherCacheEntry cached = coordinateCache.get(key);
+        if (cached != null && cached.isFresh(cacheTtlSeconds)) {
+            return CompletableFuture.completedFuture(cached.getWeatherData());
+        }
+
+        Supplier<CompletableFuture<WeatherData>> loader = () -> inFlightCoordinateLoads.executeAsync(key, () -> {
+            double cellLat = Math.max(-90, Math.min(90, coordinateCache.latitude(key)));
+            double cellLon = Math.max(-180, Math.min(180, coordinateCache.longitude(key)));
+            return apiClient.getCurrentWeatherByCoordinatesAsync(cellLat, cellLon).thenApply(weatherData -> {
+                WeatherCacheEntry entry = newCacheEntry(null, weatherData, coordinateCache.get(key));
+                coordinateCache.put(key, entry, retentionNanos(entry));
+                return weatherData;
+            });
+        });
+        if (isServableWhenStale(cached)) {
+            refreshAsync(key, loader);
+            return CompletableFuture.completedFuture(cached.getWeatherData());
+        }
+        return loadOrServeStaleAsync(loader.get(), cached);
+    }
+
+    /**
+     * Checks if a city name was recently not found by the Geocoding API. Names with cached
+     * coordinates are never rejected, whatever the Bloom filter of the negative cache says.
+     */
+    private boolean isKnownUnknown(String normalizedCityName) {
+        return negativeCache.isUnknown(normalizedCityName) && geocodingCache.get(normalizedCityName) == null;
+    }
+
+    /**
+     * Runs the loader, falling back to the expired entry while the circuit breaker is open
      */
-    private WeatherData fetchWeatherFromApi(String cityName) throws WeatherApiException {
+    private static WeatherData loadOrServeStale(SingleFlight.Loader<WeatherData> loader, WeatherCacheEntry cached)
+            throws WeatherApiException {
         try {
-            String encodedCityName = URLEncoder.encode(cityName.trim(), StandardCharsets.UTF_8);
-            String url = String.format("%s/weather?q=%s&appid=%s&units=metric&lang=ru",
-                    WeatherConfig.BASE_URL,
-                    encodedCityName,
-                    apiKey);
-            
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .timeout(Duration.ofSeconds(10))
-                    .GET()
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            
-            if (response.statusCode() != 200) {
-                String errorMessage = response.body();
-                
-                // Handle various status codes
-                switch (response.statusCode()) {
-                    case 401:
-                        throw new WeatherApiException("Invalid API key. Check your key.");
-                    case 404:
-                        if (errorMessage != null && errorMessage.contains("city not found")) {
-                            throw new WeatherApiException("City not found: " + cityName);
-                        }
-                        throw new WeatherApiException("City not found: " + cityName);
-                    case 429:
-                        throw new WeatherApiException("Request limit exceeded. Try again later.");
-                    case 500:
-                    case 502:
-                    case 503:
-                        throw new WeatherApiException("OpenWeather server error. Try again later.");
-                    default:
-                        throw new WeatherApiException("API error: " + response.statusCode() + 
-                                " - " + (errorMessage != null ? errorMessage : "Unknown error"));
-                }
+            return loader.load();
+        } catch (CircuitBreakerOpenException e) {
+            if (cached == null) {
+                throw e;
             }
-            
-            WeatherData weatherData = objectMapper.readValue(response.body(), WeatherData.class);
-            
-            // Check that we received city data
-            if (weatherData.getName() == null || weatherData.getName().isEmpty()) {
-                throw new WeatherApiException("Failed to get city data: " + cityName);
+            return cached.getWeatherData();
+        }
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #loadOrServeStale(SingleFlight.Loader, WeatherCacheEntry)}
+     */
+    private static CompletableFuture<WeatherData> loadOrServeStaleAsync(CompletableFuture<WeatherData> load,
+                                                                        WeatherCacheEntry cached) {
+        if (cached == null) {
+            return load;
+        }
+        return load.handle((weatherData, error) -> {
+            if (error == null) {
+                return weatherData;
             }
-            
-            return weatherData;
-            
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new WeatherApiException("Request was interrupted: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new WeatherApiException("Error getting weather data: " + e.getMessage(), e);
-        } catch (WeatherApiException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new WeatherApiException("Error getting weather data: " + e.getMessage(), e);
+            Throwable cause = Futures.unwrap(error);
+            if (cause instanceof CircuitBreakerOpenException) {
+                return cached.getWeatherData();
+            }
+            throw Futures.wrap(cause);
+        });
+    }
+
+    /**
+     * Creates a cache entry for freshly loaded data, expiring as the expiry policy decides
+     */
+    private WeatherCacheEntry newCacheEntry(String cityName, WeatherData weatherData, WeatherCacheEntry previous) {
+        Instant now = Instant.now();
+        return new WeatherCacheEntry(cityName, weatherData, now, expiryPolicy.expiresAt(weatherData, previous, now));
+    }
+
+    /**
+     * Caches a city entry, to be removed once it is expired, or also past the hard TTL if expired entries are kept
+     */
+    private void putInCache(String normalizedCityName, WeatherCacheEntry entry) {
+        if (mode == SdkMode.POLLING) {
+            cache.put(normalizedCityName, entry);
+        } else {
+            cache.put(normalizedCityName, entry, retentionNanos(entry), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Gets how long an entry is kept: until it is expired, and past the hard TTL if expired entries are kept
+     */
+    private long retentionNanos(WeatherCacheEntry entry) {
+        // Without an expiration time the entry expires after the cache TTL
+        long lifetimeNanos = entry.getExpiresAt() != null
+                ? TimeUnit.MILLISECONDS.toNanos(entry.getExpiresAt().toEpochMilli() - entry.getTimestamp().toEpochMilli())
+                : TimeUnit.SECONDS.toNanos(cacheTtlSeconds);
+        if (keepsExpiredEntries) {
+            lifetimeNanos = Math.max(TimeUnit.SECONDS.toNanos(hardTtlSeconds), lifetimeNanos);
         }
+        return Math.max(1, lifetimeNanos); // an expiry policy may return a time already past
+    }
+
+    /**
+     * Removes expired entries from the caches; runs periodically on the background executor
+     */
+    private void cleanUpCaches() {
+        try {
+            cache.cleanUp();
+            coordinateCache.cleanUp();
+            geocodingCache.cleanUp();
+        } catch (RuntimeException e) {
+            // Keep the periodic task alive; the next run or write retries
+            System.err.println("Error removing expired cache entries: " + e);
+        }
+    }
+
+    /**
+     * Checks if an expired entry may still be returned while it is refreshed in the background
+     */
+    private boolean isServableWhenStale(WeatherCacheEntry cached) {
+        return mode == SdkMode.STALE_WHILE_REVALIDATE && cached != null && cached.isUpToDate(hardTtlSeconds);
+    }
+
+    /**
+     * Records a city cache lookup that found no up-to-date entry
+     *
+     * @return true if the expired entry may be served while it is refreshed
+     */
+    private boolean recordStaleOrMiss(WeatherCacheEntry cached) {
+        if (cached != null) {
+            stats.recordExpiration();
+        }
+        boolean servableWhenStale = isServableWhenStale(cached);
+        if (servableWhenStale) {
+            stats.recordHit();
+        } else {
+            stats.recordMiss();
+        }
+        return servableWhenStale;
     }
     
     /**
-     * Starts background thread for updating data in POLLING mode
+     * Runs the loader on the background executor unless a refresh for the key is already running
      */
-    private void startPolling() {
-        pollingExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "WeatherSdk-Polling");
+    private void refreshInBackground(Object key, SingleFlight.Loader<WeatherData> loader) {
+        if (!isRunning || !refreshing.add(key)) {
+            return;
+        }
+        try {
+            (refreshExecutor != null ? refreshExecutor : backgroundExecutor).execute(() -> {
+                try {
+                    loader.load();
+                } catch (WeatherApiException e) {
+                    // Keep serving the stale entry; the next request past the soft TTL retries
+                    System.err.println("Error refreshing data for " + key + ": " + e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+    
+    /**
+     * Starts the asynchronous loader unless a refresh for the key is already running
+     */
+    private void refreshAsync(Object key, Supplier<CompletableFuture<WeatherData>> loader) {
+        if (!isRunning || !refreshing.add(key)) {
+            return;
+        }
+        loader.get().whenComplete((weatherData, error) -> {
+            refreshing.remove(key);
+            if (error != null) {
+                System.err.println("Error refreshing data for " + key + ": " + Futures.unwrap(error).getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Creates the default daemon executor for POLLING and STALE_WHILE_REVALIDATE modes
+     */
+    private ScheduledExecutorService createBackgroundExecutor(String threadName, int threads) {
+        ThreadFactory threadFactory = virtualThreads ? VirtualThreads.newThreadFactory(threadName) : r -> {
+            Thread t = new Thread(r, threadName);
             t.setDaemon(true);
             return t;
-        });
-        
-    // Update data every 5 minutes (to keep data fresh)
-        pollingExecutor.scheduleWithFixedDelay(
-                this::updateAllCachedCities,
-                0,
-                5,
-                TimeUnit.MINUTES
-        );
+        };
+        return Executors.newScheduledThreadPool(threads, threadFactory);
+    }
+    
+    /**
+     * Starts periodic data updates in POLLING mode
+     */
+    private void startPolling() {
+        schedulePollingCycle(0);
+    }
+    
+    /**
+     * Schedules the next polling cycle unless the SDK is shut down
+     */
+    private void schedulePollingCycle(long delayMillis) {
+        synchronized (pollingLock) {
+            if (!isRunning) {
+                return;
+            }
+            try {
+                pollingTask = backgroundExecutor.schedule(this::updateAllCachedCities, delayMillis,
+                        TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // A custom executor was shut down before the SDK; polling stops
+                System.err.println("Error scheduling polling cycle: " + e.getMessage());
+            }
+        }
     }
     
     /**
      * Updates data for all cities in cache
+     *
+     * <p>Refreshes are sent asynchronously, at most {@code pollingConcurrency} at a time.
+     * The cycle does not wait for them on the background executor, so that the cache
+     * clean-up and snapshot tasks keep running during a long cycle. When the last refresh
+     * finishes, the next cycle is scheduled after the polling interval (5 minutes by
+     * default, to keep data fresh).</p>
      */
     private void updateAllCachedCities() {
         if (!isRunning) {
             return;
         }
         
-        List<String> citiesToUpdate;
-        synchronized (cacheLock) {
-            citiesToUpdate = new ArrayList<>(cache.keySet());
-        }
+        Instant startTime = Instant.now();
+        long startNanos = System.nanoTime();
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger failureCount = new AtomicInteger();
         
-        for (String normalizedCityName : citiesToUpdate) {
-            if (!isRunning) {
-                break;
+        forEachConcurrently(new ArrayList<>(cache.keySet()), pollingConcurrency, normalizedCityName -> {
+            // Get original city name
+            WeatherCacheEntry current = cache.peek(normalizedCityName);
+            String originalCityName = current != null ? current.getCityName() : null;
+            if (!isRunning || originalCityName == null) {
+                return CompletableFuture.completedFuture(null);
             }
             
-            try {
-                // Get original city name
-                String originalCityName;
-                synchronized (cacheLock) {
-                    originalCityName = originalCityNames.get(normalizedCityName);
+            // Shares the load with concurrent user requests for the same city
+            return inFlightLoads.executeAsync(normalizedCityName,
+                    () -> loadWeatherAsync(normalizedCityName, originalCityName))
+                    .whenComplete((weatherData, error) -> {
+                        if (error == null) {
+                            successCount.incrementAndGet();
+                        } else {
+                            // Log error but continue updating other cities
+                            failureCount.incrementAndGet();
+                            System.err.println("Error updating data for city " + normalizedCityName + ": "
+                                    + Futures.unwrap(error).getMessage());
+                        }
+                    });
+        }).whenComplete((ignored, error) -> {
+            lastPollingCycle = new PollingCycleStats(startTime, Duration.ofNanos(System.nanoTime() - startNanos),
+                    successCount.get(), failureCount.get());
+            schedulePollingCycle(pollingInterval.toMillis());
+        });
+    }
+    
+    /**
+     * Starts a task for each item, at most {@code parallelism} at a time, without blocking:
+     * each task that finishes starts the next one
+     *
+     * @return future completed when all tasks have finished, whatever their outcome, or
+     *         exceptionally if starting a task threw; tasks already started keep running
+     */
+    private static <T> CompletableFuture<Void> forEachConcurrently(Collection<T> items, int parallelism,
+                                                                   Function<T, CompletableFuture<?>> task) {
+        if (items.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Iterator<T> pending = items.iterator();
+        AtomicInteger remaining = new AtomicInteger(items.size());
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        for (int i = 0; i < parallelism; i++) {
+            startNext(pending, task, remaining, completion);
+        }
+        return completion;
+    }
+    
+    /**
+     * Starts the next pending task, and the one after it when that finishes
+     */
+    private static <T> void startNext(Iterator<T> pending, Function<T, CompletableFuture<?>> task,
+                                      AtomicInteger remaining, CompletableFuture<Void> completion) {
+        // Loop over tasks that finish at once, so that cache hits do not recurse per item
+        while (true) {
+            T item;
+            synchronized (pending) {
+                if (completion.isDone() || !pending.hasNext()) {
+                    return;
                 }
-                
-                if (originalCityName != null) {
-                    WeatherData weatherData = fetchWeatherFromApi(originalCityName);
-                    synchronized (cacheLock) {
-                        cache.put(normalizedCityName, new WeatherCacheEntry(weatherData, Instant.now()));
-                        accessOrder.put(normalizedCityName, Instant.now());
+                item = pending.next();
+            }
+            CompletableFuture<?> future;
+            try {
+                future = task.apply(item);
+            } catch (RuntimeException e) {
+                completion.completeExceptionally(e);
+                return;
+            }
+            if (!future.isDone()) {
+                future.whenComplete((result, error) -> {
+                    if (remaining.decrementAndGet() == 0) {
+                        completion.complete(null);
                     }
-                }
-            } catch (WeatherApiException e) {
-                // Log error but continue updating other cities
-                System.err.println("Error updating data for city " + normalizedCityName + ": " + e.getMessage());
+                    startNext(pending, task, remaining, completion);
+                });
+                return;
+            }
+            if (remaining.decrementAndGet() == 0) {
+                completion.complete(null);
             }
         }
     }
     
+    /**
+     * Restores unexpired cache entries from the snapshot file, if it exists
+     */
+    private void loadSnapshot() {
+        // Entries that could no longer be served are not worth restoring
+        long servableTtlSeconds = mode == SdkMode.STALE_WHILE_REVALIDATE ? hardTtlSeconds : cacheTtlSeconds;
+        try {
+            CacheSnapshot.load(snapshotFile, cache, servableTtlSeconds, geocodingCache, objectMapper);
+        } catch (IOException e) {
+            // A missing or broken snapshot only means a cold start
+            System.err.println("Error loading cache snapshot " + snapshotFile + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Writes the weather and geocoding caches to the snapshot file
+     */
+    private void writeSnapshot() {
+        try {
+            CacheSnapshot.write(snapshotFile, cache, geocodingCache, objectMapper);
+        } catch (IOException e) {
+            System.err.println("Error writing cache snapshot " + snapshotFile + ": " + e.getMessage());
+        }
+    }
+    
     /**
      * Stops SDK and releases resources.
      * 
@@ -336,21 +1049,51 @@ public class WeatherSdk implements AutoCloseable {
      * sdk.shutdown(); // Stop background threads
      * }</pre>
      * 
+     * <p>If a snapshot file is configured, the caches are written to it one last time.</p>
+     * 
      * <p>Note: when using {@link #delete(String)}, shutdown() is called automatically.</p>
      */
     public void shutdown() {
         isRunning = false;
-        if (pollingExecutor != null) {
-            pollingExecutor.shutdown();
-            try {
-                if (!pollingExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                    pollingExecutor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                pollingExecutor.shutdownNow();
-                Thread.currentThread().interrupt();
+        synchronized (pollingLock) {
+            if (pollingTask != null) {
+                pollingTask.cancel(false);
             }
         }
+        if (snapshotTask != null) {
+            snapshotTask.cancel(false);
+        }
+        if (cleanUpTask != null) {
+            cleanUpTask.cancel(false);
+        }
+        boolean firstShutdown = isShutDown.compareAndSet(false, true);
+        if (firstShutdown && snapshotFile != null) {
+            writeSnapshot();
+        }
+        if (backgroundExecutor != null && ownsBackgroundExecutor) {
+            awaitShutdown(backgroundExecutor);
+        }
+        if (refreshExecutor != null) {
+            awaitShutdown(refreshExecutor);
+        }
+        if (firstShutdown) {
+            transport.release();
+        }
+    }
+    
+    /**
+     * Shuts the executor down, waiting up to 5 seconds for running tasks
+     */
+    private static void awaitShutdown(ExecutorService executor) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
     }
     
     /**
@@ -365,14 +1108,118 @@ public class WeatherSdk implements AutoCloseable {
     /**
      * Gets current number of cities in cache.
      * 
-     * <p>Maximum number of cities in cache is limited by {@value #MAX_CACHE_SIZE}.</p>
+     * <p>Maximum number of cities in cache is limited by {@link #getCacheCapacity()}
+     * ({@value #DEFAULT_CACHE_CAPACITY} by default).</p>
      * 
-     * @return number of cities in cache (from 0 to {@value #MAX_CACHE_SIZE})
+     * @return number of cities in cache (from 0 to {@link #getCacheCapacity()})
      */
     public int getCacheSize() {
-        synchronized (cacheLock) {
-            return cache.size();
-        }
+        return cache.size();
+    }
+    
+    /**
+     * Gets maximum number of cities in cache.
+     * 
+     * @return cache capacity configured via {@link Builder#cacheCapacity(long)},
+     *         or {@link Long#MAX_VALUE} if the cache is bounded by {@link Builder#cacheMaximumWeight(long)}
+     */
+    public long getCacheCapacity() {
+        return cache.getMaximumSize();
+    }
+    
+    /**
+     * Gets total weight of the cached cities, e.g. their estimated size in bytes.
+     * 
+     * @return sum of the entry weights if the cache is bounded by
+     *         {@link Builder#cacheMaximumWeight(long)}, otherwise the number of cached cities
+     */
+    public long getCacheWeight() {
+        return cache.weightedSize();
+    }
+    
+    /**
+     * Gets current number of cities with cached coordinates.
+     * 
+     * @return number of cities in the geocoding cache
+     */
+    public int getGeocodingCacheSize() {
+        return geocodingCache.size();
+    }
+    
+    /**
+     * Gets current number of city names remembered as not found.
+     * 
+     * @return number of names in the negative cache, not counting the Bloom filter
+     */
+    public int getNegativeCacheSize() {
+        return negativeCache.size();
+    }
+    
+    /**
+     * Gets statistics of the city weather cache.
+     * 
+     * <p>A lookup answered from the cache counts as a hit, including stale data served in
+     * STALE_WHILE_REVALIDATE mode; any other lookup counts as a miss. A lookup that finds
+     * data older than the TTL also counts as an expiration. Loads cover every API request
+     * for city weather, including polling and background refreshes. Counting uses
+     * {@link java.util.concurrent.atomic.LongAdder}s, so it adds no contention to cache hits.</p>
+     * 
+     * @return snapshot of the counts since the SDK was created
+     */
+    public CacheStats getCacheStats() {
+        return stats.snapshot(cache.evictionCount());
+    }
+    
+    /**
+     * Gets current number of grid cells cached by coordinate lookups.
+     * 
+     * @return number of entries in the coordinate cache
+     */
+    public int getCoordinateCacheSize() {
+        return coordinateCache.size();
+    }
+    
+    /**
+     * Gets metrics of the last completed refresh cycle in POLLING mode.
+     * 
+     * @return cycle duration and number of successful and failed refreshes,
+     *         or null if no cycle has completed yet or the mode is not POLLING
+     */
+    public PollingCycleStats getLastPollingCycle() {
+        return lastPollingCycle;
+    }
+    
+    /**
+     * Gets number of requests that can be sent right now without waiting for the rate limiter.
+     * 
+     * @return current token level of the rate limiter (negative while requests are queued),
+     *         or {@link Double#POSITIVE_INFINITY} if no rate limit is configured
+     */
+    public double getAvailableRateLimitTokens() {
+        return rateLimiter != null ? rateLimiter.getAvailableTokens() : Double.POSITIVE_INFINITY;
+    }
+    
+    /**
+     * Checks whether background work runs on virtual threads.
+     * 
+     * @return true if {@link Builder#virtualThreads(boolean)} was enabled and the runtime
+     *         supports virtual threads (Java 21+)
+     */
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+    
+    /**
+     * Gets state of the circuit breaker in front of the OpenWeather API.
+     * 
+     * <p>While the breaker is {@link CircuitBreakerState#OPEN OPEN}, lookups that cannot be
+     * answered from the cache fail fast with {@link CircuitBreakerOpenException}; lookups
+     * with an expired cache entry return that entry instead.</p>
+     * 
+     * @return current state, {@link CircuitBreakerState#CLOSED} if the breaker is disabled
+     */
+    public CircuitBreakerState getCircuitBreakerState() {
+        return circuitBreaker != null ? circuitBreaker.getState() : CircuitBreakerState.CLOSED;
     }
     
     // Registry pattern for managing SDK instances
@@ -405,7 +1252,8 @@ public class WeatherSdk implements AutoCloseable {
      * }</pre>
      * 
      * @param apiKey OpenWeather API key (get at https://openweathermap.org/api)
-     * @param mode SDK operation mode ({@link SdkMode#ON_DEMAND} or {@link SdkMode#POLLING})
+     * @param mode SDK operation mode ({@link SdkMode#ON_DEMAND}, {@link SdkMode#POLLING}
+     *             or {@link SdkMode#STALE_WHILE_REVALIDATE})
      * @return WeatherSdk instance (new or existing)
      * @throws WeatherApiException if:
      *   <ul>
@@ -415,22 +1263,48 @@ public class WeatherSdk implements AutoCloseable {
      *   </ul>
      */
     public static WeatherSdk create(String apiKey, SdkMode mode) throws WeatherApiException {
+        return builder(apiKey).mode(mode).build();
+    }
+    
+    /**
+     * Creates a builder for configuring an SDK instance.
+     * 
+     * <p>Use the builder when the defaults of {@link #create(String, SdkMode)} do not fit,
+     * e.g. to cache tens of thousands of cities.</p>
+     * 
+     * <p><b>Usage example:</b></p>
+     * <pre>{@code
+     * WeatherSdk sdk = WeatherSdk.builder("your-api-key")
+     *         .mode(SdkMode.POLLING)
+     *         .cacheCapacity(100_000)
+     *         .cacheTtl(Duration.ofMinutes(15))
+     *         .pollingInterval(Duration.ofMinutes(10))
+     *         .build();
+     * }</pre>
+     * 
+     * @param apiKey OpenWeather API key
+     * @return new builder
+     */
+    public static Builder builder(String apiKey) {
+        return new Builder(apiKey);
+    }
+    
+    /**
+     * Registers a new instance or returns the existing one for the builder's API key
+     */
+    private static WeatherSdk register(Builder builder) throws WeatherApiException {
         synchronized (registryLock) {
-            String normalizedKey = apiKey != null ? apiKey.trim() : null;
-            if (normalizedKey == null || normalizedKey.isEmpty()) {
-                throw new WeatherApiException("API ключ не может быть пустым");
-            }
-            
+            String normalizedKey = builder.apiKey;
             WeatherSdk existing = instances.get(normalizedKey);
             if (existing != null) {
                 // Если режим отличается, выбрасываем исключение
-                if (existing.getMode() != mode) {
+                if (existing.getMode() != builder.mode) {
                     throw new WeatherApiException("SDK с таким API ключом уже существует с другим режимом работы");
                 }
                 return existing;
             }
             
-            WeatherSdk newInstance = new WeatherSdk(normalizedKey, mode);
+            WeatherSdk newInstance = new WeatherSdk(builder);
             instances.put(normalizedKey, newInstance);
             return newInstance;
         }
@@ -500,5 +1374,655 @@ public class WeatherSdk implements AutoCloseable {
             return normalizedKey != null ? instances.get(normalizedKey) : null;
         }
     }
+    
+    /**
+     * Builder for {@link WeatherSdk} instances.
+     * 
+     * <p>All settings are optional except the API key; {@link #build()} registers the
+     * instance in the same registry as {@link WeatherSdk#create(String, SdkMode)}.
+     * If an instance for the API key already exists, it is returned unchanged
+     * (its mode must match).</p>
+     */
+    public static final class Builder {
+        private final String apiKey;
+        private SdkMode mode = SdkMode.ON_DEMAND;
+        private long cacheCapacity = DEFAULT_CACHE_CAPACITY;
+        private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+        private Long cacheMaximumWeight; // null = bounded by cacheCapacity
+        private Weigher<? super String, ? super WeatherCacheEntry> cacheWeigher = Weigher.retainedBytes();
+        private Duration cacheTtl = DEFAULT_CACHE_TTL;
+        private ExpiryPolicy expiryPolicy; // null = fixed cache TTL
+        private Duration pollingInterval = DEFAULT_POLLING_INTERVAL;
+        private int pollingConcurrency = DEFAULT_POLLING_CONCURRENCY;
+        private int bulkParallelism = DEFAULT_BULK_PARALLELISM;
+        private double warmUpRate = DEFAULT_WARM_UP_RATE;
+        private Duration hardTtl; // null = DEFAULT_HARD_TTL, or the cache TTL if that is longer
+        private long geocodingCacheCapacity = GeocodingCache.DEFAULT_CAPACITY;
+        private Duration geocodingCacheTtl = GeocodingCache.DEFAULT_TTL;
+        private Duration negativeCacheTtl = NegativeCache.DEFAULT_TTL;
+        private int unknownCityFilterCapacity = NegativeCache.DEFAULT_FILTER_CAPACITY;
+        private long coordinateCacheCapacity = CoordinateCache.DEFAULT_CAPACITY;
+        private double coordinatePrecision = CoordinateCache.DEFAULT_PRECISION;
+        private Path snapshotFile;
+        private Duration snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+        private Double rateLimit; // null = unlimited
+        private Integer rateLimitBurst; // null = one second of requests
+        private Duration rateLimitMaxWait = DEFAULT_RATE_LIMIT_MAX_WAIT;
+        private int maxRetries = DEFAULT_MAX_RETRIES;
+        private Duration retryBaseDelay = DEFAULT_RETRY_BASE_DELAY;
+        private Duration retryMaxDelay = DEFAULT_RETRY_MAX_DELAY;
+        private Duration requestDeadline = DEFAULT_REQUEST_DEADLINE;
+        private boolean circuitBreakerEnabled = true;
+        private boolean circuitBreakerServesStale;
+        private double circuitBreakerFailureRate = DEFAULT_CIRCUIT_BREAKER_FAILURE_RATE;
+        private int circuitBreakerWindowSize = DEFAULT_CIRCUIT_BREAKER_WINDOW_SIZE;
+        private Duration circuitBreakerOpenDuration = DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION;
+        private Double hedgePercentile; // null = no hedging
+        private double hedgeBudget = DEFAULT_HEDGE_BUDGET;
+        private boolean virtualThreads;
+        private ScheduledExecutorService executor;
+        private WeatherApiClient apiClient;
+        
+        private Builder(String apiKey) {
+            this.apiKey = apiKey != null ? apiKey.trim() : null;
+        }
+        
+        /**
+         * Sets SDK operation mode ({@link SdkMode#ON_DEMAND} by default).
+         * 
+         * @param mode SDK operation mode
+         * @return this builder
+         */
+        public Builder mode(SdkMode mode) {
+            this.mode = mode;
+            return this;
+        }
+        
+        /**
+         * Sets maximum number of cities in cache ({@value WeatherSdk#DEFAULT_CACHE_CAPACITY} by default).
+         * The cache handles hundreds of thousands of entries.
+         * 
+         * @param cacheCapacity maximum number of cities, must be positive
+         * @return this builder
+         */
+        public Builder cacheCapacity(long cacheCapacity) {
+            this.cacheCapacity = cacheCapacity;
+            return this;
+        }
+        
+        /**
+         * Bounds the cache by the total weight of its entries instead of their number
+         * (disabled by default).
+         * 
+         * <p>With the default {@link #cacheWeigher(Weigher)}, the weight is the estimated
+         * heap size of an entry in bytes, so the cache can be sized to a fixed share of
+         * the heap however much data each city holds. {@link #cacheCapacity(long)} is
+         * ignored in this mode.</p>
+         * 
+         * @param maximumWeight maximum total weight, e.g. bytes, must be positive
+         * @return this builder
+         */
+        public Builder cacheMaximumWeight(long maximumWeight) {
+            this.cacheMaximumWeight = maximumWeight;
+            return this;
+        }
+        
+        /**
+         * Sets how the weight of a cached city is computed when the cache is bounded by
+         * {@link #cacheMaximumWeight(long)} ({@link Weigher#retainedBytes()} by default).
+         * 
+         * @param weigher weigher called with the normalized city name and the cache entry
+         * @return this builder
+         */
+        public Builder cacheWeigher(Weigher<? super String, ? super WeatherCacheEntry> weigher) {
+            this.cacheWeigher = weigher;
+            return this;
+        }
+        
+        /**
+         * Sets policy that selects the cities to evict from a full cache
+         * ({@link EvictionPolicy#LRU} by default).
+         * 
+         * <p>{@link EvictionPolicy#W_TINY_LFU} keeps frequently requested cities cached when
+         * many rarely requested ones are looked up once, e.g. by a nightly report.</p>
+         * 
+         * @param evictionPolicy eviction policy
+         * @return this builder
+         */
+        public Builder evictionPolicy(EvictionPolicy evictionPolicy) {
+            this.evictionPolicy = evictionPolicy;
+            return this;
+        }
+        
+        /**
+         * Sets time during which cached data is considered up-to-date (10 minutes by default).
+         * 
+         * @param cacheTtl cache time-to-live, at least one second
+         * @return this builder
+         */
+        public Builder cacheTtl(Duration cacheTtl) {
+            this.cacheTtl = cacheTtl;
+            return this;
+        }
+        
+        /**
+         * Sets policy that decides when freshly loaded data expires (by default, after the cache TTL).
+         * 
+         * <p>{@link ExpiryPolicy#adaptive()} ages data from the time OpenWeather observed it and
+         * keeps barely changing readings longer, so fewer requests return identical data.
+         * Entries restored from a snapshot still expire after the cache TTL.</p>
+         * 
+         * <p>The policy is passed the entry that reloaded data replaces, even if it has expired,
+         * so with a policy set expired entries are kept until the hard TTL in every mode.</p>
+         * 
+         * @param expiryPolicy expiry policy
+         * @return this builder
+         */
+        public Builder expiryPolicy(ExpiryPolicy expiryPolicy) {
+            this.expiryPolicy = expiryPolicy;
+            return this;
+        }
+        
+        /**
+         * Sets interval between updates in POLLING mode (5 minutes by default).
+         * 
+         * @param pollingInterval polling interval, must be positive
+         * @return this builder
+         */
+        public Builder pollingInterval(Duration pollingInterval) {
+            this.pollingInterval = pollingInterval;
+            return this;
+        }
+        
+        /**
+         * Sets maximum number of cities refreshed concurrently in one POLLING mode cycle (16 by default).
+         * 
+         * @param pollingConcurrency concurrency limit, must be positive
+         * @return this builder
+         */
+        public Builder pollingConcurrency(int pollingConcurrency) {
+            this.pollingConcurrency = pollingConcurrency;
+            return this;
+        }
+        
+        /**
+         * Sets maximum number of concurrent API loads in one
+         * {@link WeatherSdk#getCurrentWeatherBulk(Collection)} call (16 by default).
+         * 
+         * @param bulkParallelism parallelism limit, must be positive
+         * @return this builder
+         */
+        public Builder bulkParallelism(int bulkParallelism) {
+            this.bulkParallelism = bulkParallelism;
+            return this;
+        }
+        
+        /**
+         * Sets maximum rate of API requests sent by {@link WeatherSdk#warmUp(Collection, int)}
+         * (10 per second by default), so that a warm-up leaves room for regular traffic.
+         * 
+         * @param requestsPerSecond warm-up request rate, must be positive
+         * @return this builder
+         */
+        public Builder warmUpRate(double requestsPerSecond) {
+            this.warmUpRate = requestsPerSecond;
+            return this;
+        }
+        
+        /**
+         * Sets age after which data is no longer served stale in
+         * {@link SdkMode#STALE_WHILE_REVALIDATE} mode (1 hour by default).
+         * 
+         * <p>Between the cache TTL and the hard TTL, cached data is returned immediately
+         * and refreshed in the background; past the hard TTL the request waits for the API.</p>
+         * 
+         * <p>Expired entries are also kept until the hard TTL, to be returned while the circuit
+         * breaker is open, except in {@link SdkMode#ON_DEMAND} mode without
+         * {@link #circuitBreakerServesStale(boolean)} or an {@link #expiryPolicy(ExpiryPolicy)};
+         * there they are removed once they expire. Polled cities are never removed.</p>
+         * 
+         * @param hardTtl hard time-to-live, not shorter than the cache TTL
+         * @return this builder
+         */
+        public Builder hardTtl(Duration hardTtl) {
+            this.hardTtl = hardTtl;
+            return this;
+        }
+        
+        /**
+         * Sets maximum number of cities with cached coordinates
+         * ({@value GeocodingCache#DEFAULT_CAPACITY} by default).
+         * 
+         * @param geocodingCacheCapacity maximum number of cities, must be positive
+         * @return this builder
+         */
+        public Builder geocodingCacheCapacity(long geocodingCacheCapacity) {
+            this.geocodingCacheCapacity = geocodingCacheCapacity;
+            return this;
+        }
+        
+        /**
+         * Sets time after which city coordinates are looked up again (7 days by default).
+         * 
+         * @param geocodingCacheTtl geocoding cache time-to-live, must be positive
+         * @return this builder
+         */
+        public Builder geocodingCacheTtl(Duration geocodingCacheTtl) {
+            this.geocodingCacheTtl = geocodingCacheTtl;
+            return this;
+        }
+        
+        /**
+         * Sets time during which a city name the Geocoding API did not find is rejected
+         * without a request (10 minutes by default).
+         * 
+         * @param negativeCacheTtl negative cache time-to-live, must be positive
+         * @return this builder
+         */
+        public Builder negativeCacheTtl(Duration negativeCacheTtl) {
+            this.negativeCacheTtl = negativeCacheTtl;
+            return this;
+        }
+        
+        /**
+         * Enables a Bloom filter of not found city names sized for the given number of names
+         * (disabled by default; 100,000 names take about 180 KB).
+         * 
+         * <p>The filter remembers not found names for one to two days after the negative
+         * cache TTL has passed, so a city added to the provider's database later is rejected
+         * for that long. At its capacity, about 0.1% of names that were never looked up are
+         * falsely rejected as not found without a request; names with cached coordinates
+         * never are. Enable it only if repeated lookups of made-up names are a problem.</p>
+         * 
+         * @param unknownCityFilterCapacity number of names, 0 disables the filter
+         * @return this builder
+         */
+        public Builder unknownCityFilterCapacity(int unknownCityFilterCapacity) {
+            this.unknownCityFilterCapacity = unknownCityFilterCapacity;
+            return this;
+        }
+        
+        /**
+         * Sets maximum number of grid cells cached by coordinate lookups
+         * ({@value CoordinateCache#DEFAULT_CAPACITY} by default).
+         * 
+         * @param coordinateCacheCapacity maximum number of grid cells, must be positive
+         * @return this builder
+         */
+        public Builder coordinateCacheCapacity(long coordinateCacheCapacity) {
+            this.coordinateCacheCapacity = coordinateCacheCapacity;
+            return this;
+        }
+        
+        /**
+         * Sets grid precision for coordinate lookups in degrees
+         * ({@value CoordinateCache#DEFAULT_PRECISION} by default).
+         * 
+         * <p>Lookups that round to the same grid cell share one cache entry.
+         * A coarser grid saves API calls, a finer grid is more accurate.</p>
+         * 
+         * @param coordinatePrecision grid cell size, from {@value CoordinateCache#MIN_PRECISION} to 1 degree
+         * @return this builder
+         */
+        public Builder coordinatePrecision(double coordinatePrecision) {
+            this.coordinatePrecision = coordinatePrecision;
+            return this;
+        }
+        
+        /**
+         * Sets file for persistent cache snapshots (disabled by default).
+         * 
+         * <p>When set, weather data and city coordinates are loaded from the file on creation,
+         * written to it periodically and once more on {@link WeatherSdk#shutdown()}, so that
+         * a restarted service does not have to fetch everything again. Expired entries are
+         * not restored.</p>
+         * 
+         * @param snapshotFile snapshot file on local disk, or null to disable snapshots
+         * @return this builder
+         */
+        public Builder snapshotFile(Path snapshotFile) {
+            this.snapshotFile = snapshotFile;
+            return this;
+        }
+        
+        /**
+         * Sets interval between cache snapshots (5 minutes by default).
+         * 
+         * @param snapshotInterval snapshot interval, must be positive
+         * @return this builder
+         */
+        public Builder snapshotInterval(Duration snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+            return this;
+        }
+        
+        /**
+         * Limits requests to the OpenWeather API to the given rate (unlimited by default).
+         * 
+         * <p>Requests over the rate are queued and sent as tokens become available, so calls
+         * leave evenly instead of in bursts that exceed the API quota. The limit is shared by
+         * all requests of this SDK instance, including POLLING mode updates.</p>
+         * 
+         * @param requestsPerSecond target request rate, must be positive (e.g. 1.0 for 60 calls per minute)
+         * @return this builder
+         */
+        public Builder rateLimit(double requestsPerSecond) {
+            this.rateLimit = requestsPerSecond;
+            return this;
+        }
+        
+        /**
+         * Sets number of requests that may be sent back-to-back before the rate limit applies
+         * (by default, one second of requests at the configured rate).
+         * 
+         * @param burst maximum burst, must be positive
+         * @return this builder
+         */
+        public Builder rateLimitBurst(int burst) {
+            this.rateLimitBurst = burst;
+            return this;
+        }
+        
+        /**
+         * Sets longest time a request is queued by the rate limiter (10 seconds by default).
+         * Requests that would wait longer fail with {@link WeatherApiException};
+         * {@link Duration#ZERO} rejects every request over the rate instead of queueing it.
+         * 
+         * @param maxWait maximum queueing time, must not be negative
+         * @return this builder
+         */
+        public Builder rateLimitMaxWait(Duration maxWait) {
+            this.rateLimitMaxWait = maxWait;
+            return this;
+        }
+        
+        /**
+         * Sets number of retries after a transient failure (2 by default, 0 disables retries).
+         * 
+         * <p>I/O errors and 429, 500, 502, 503 and 504 responses are retried after a random
+         * delay of up to {@code baseDelay * 2^n}, capped by {@link #retryBackoff(Duration, Duration)}.
+         * A {@code Retry-After} header on the response is honored instead.</p>
+         * 
+         * @param maxRetries number of retries, must not be negative
+         * @return this builder
+         */
+        public Builder maxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+        
+        /**
+         * Sets retry backoff bounds (200 ms growing up to 5 seconds by default).
+         * 
+         * @param baseDelay upper bound of the first backoff, must be positive
+         * @param maxDelay cap of the backoff, must not be shorter than {@code baseDelay}
+         * @return this builder
+         */
+        public Builder retryBackoff(Duration baseDelay, Duration maxDelay) {
+            this.retryBaseDelay = baseDelay;
+            this.retryMaxDelay = maxDelay;
+            return this;
+        }
+        
+        /**
+         * Sets time budget of one API call including all retries (30 seconds by default).
+         * No retry starts that could not begin before the deadline, and an attempt that
+         * would wait for a rate limit token past it fails at once.
+         * 
+         * @param requestDeadline deadline, must be positive
+         * @return this builder
+         */
+        public Builder requestDeadline(Duration requestDeadline) {
+            this.requestDeadline = requestDeadline;
+            return this;
+        }
+        
+        /**
+         * Enables or disables the circuit breaker in front of the OpenWeather API (enabled by default).
+         * 
+         * <p>The breaker tracks the last {@link #circuitBreakerWindowSize(int)} requests. Once at
+         * least half of them are recorded and the share of I/O errors and 5xx responses reaches
+         * {@link #circuitBreakerFailureRate(double)}, requests fail fast with
+         * {@link CircuitBreakerOpenException} for {@link #circuitBreakerOpenDuration(Duration)};
+         * after that a few probe requests decide whether it closes again.</p>
+         * 
+         * @param enabled false to send every request regardless of past failures
+         * @return this builder
+         */
+        public Builder circuitBreakerEnabled(boolean enabled) {
+            this.circuitBreakerEnabled = enabled;
+            return this;
+        }
+        
+        /**
+         * Keeps expired entries in {@link SdkMode#ON_DEMAND} mode until the hard TTL, so that
+         * they can be returned instead of failing while the circuit breaker is open (disabled
+         * by default).
+         * 
+         * <p>By default an expired entry is removed once it expires, freeing its slot for
+         * cities that are still requested. The other modes, and any mode with an
+         * {@link #expiryPolicy(ExpiryPolicy)}, always keep expired entries until the hard TTL.</p>
+         * 
+         * @param enabled true to serve expired data while the API is unavailable
+         * @return this builder
+         * @see #hardTtl(Duration)
+         */
+        public Builder circuitBreakerServesStale(boolean enabled) {
+            this.circuitBreakerServesStale = enabled;
+            return this;
+        }
+        
+        /**
+         * Sets share of failed requests that opens the circuit breaker (0.5 by default).
+         * 
+         * @param failureRate failure rate, greater than 0 and at most 1
+         * @return this builder
+         */
+        public Builder circuitBreakerFailureRate(double failureRate) {
+            this.circuitBreakerFailureRate = failureRate;
+            return this;
+        }
+        
+        /**
+         * Sets number of recent requests the circuit breaker failure rate is computed over (20 by default).
+         * 
+         * @param windowSize number of requests, must be positive
+         * @return this builder
+         */
+        public Builder circuitBreakerWindowSize(int windowSize) {
+            this.circuitBreakerWindowSize = windowSize;
+            return this;
+        }
+        
+        /**
+         * Sets time an open circuit breaker rejects requests before probing the API (30 seconds by default).
+         * 
+         * @param openDuration open duration, must be positive
+         * @return this builder
+         */
+        public Builder circuitBreakerOpenDuration(Duration openDuration) {
+            this.circuitBreakerOpenDuration = openDuration;
+            return this;
+        }
+        
+        /**
+         * Enables hedging of weather requests (disabled by default).
+         * 
+         * <p>A weather request that has not answered within the given percentile of recent
+         * request latencies is sent a second time; the first response is used and the other
+         * request is cancelled. Hedging starts once 20 latencies have been observed, and the
+         * extra requests are capped by {@link #hedgeBudget(double)}. Hedges also take a rate
+         * limit token and are skipped when none is available.</p>
+         * 
+         * @param percentile latency percentile, e.g. 95, greater than 0 and less than 100
+         * @return this builder
+         */
+        public Builder hedgeAfterPercentile(double percentile) {
+            this.hedgePercentile = percentile;
+            return this;
+        }
+        
+        /**
+         * Sets share of extra requests hedging may send, relative to weather requests
+         * ({@value WeatherSdk#DEFAULT_HEDGE_BUDGET} by default, i.e. at most 5% extra quota).
+         * 
+         * @param budget extra requests per weather request, greater than 0 and at most 1
+         * @return this builder
+         */
+        public Builder hedgeBudget(double budget) {
+            this.hedgeBudget = budget;
+            return this;
+        }
+        
+        /**
+         * Runs background work on virtual threads when the runtime supports them (disabled by default).
+         * 
+         * <p>On Java 21 and later, the SDK's scheduler threads are virtual and each blocking
+         * STALE_WHILE_REVALIDATE refresh runs on its own virtual thread instead of queueing for
+         * a pool of 4. On older runtimes the setting has no effect; see
+         * {@link WeatherSdk#isUsingVirtualThreads()}. Polling and bulk lookups send their requests
+         * without holding a thread while waiting for the network, so they need no extra threads
+         * either way.</p>
+         * 
+         * @param virtualThreads true to use virtual threads when available
+         * @return this builder
+         */
+        public Builder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+        
+        /**
+         * Sets executor that runs updates in POLLING mode, background refreshes
+         * in STALE_WHILE_REVALIDATE mode and cache snapshots.
+         * 
+         * <p>By default the SDK starts its own daemon threads. An executor passed here
+         * is not shut down by {@link WeatherSdk#shutdown()}; only the SDK's
+         * scheduled task is cancelled.</p>
+         * 
+         * @param executor executor for background updates
+         * @return this builder
+         */
+        public Builder executor(ScheduledExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+        
+        /**
+         * Sets API client, package-private for tests.
+         */
+        Builder apiClient(WeatherApiClient apiClient) {
+            this.apiClient = apiClient;
+            return this;
+        }
+        
+        /**
+         * Creates and registers the SDK, or returns the existing instance for the API key.
+         * 
+         * @return WeatherSdk instance (new or existing)
+         * @throws WeatherApiException if:
+         *   <ul>
+         *     <li>API key is empty or null</li>
+         *     <li>mode is null</li>
+         *     <li>any of the settings is invalid</li>
+         *     <li>SDK with this key already exists with a different mode</li>
+         *   </ul>
+         */
+        public WeatherSdk build() throws WeatherApiException {
+            if (apiKey == null || apiKey.isEmpty()) {
+                throw new WeatherApiException("API ключ не может быть пустым");
+            }
+            if (mode == null) {
+                throw new WeatherApiException("Режим работы не может быть null");
+            }
+            if (cacheCapacity <= 0) {
+                throw new WeatherApiException("Cache capacity must be positive");
+            }
+            if (cacheMaximumWeight != null && cacheMaximumWeight <= 0) {
+                throw new WeatherApiException("Cache maximum weight must be positive");
+            }
+            if (cacheWeigher == null) {
+                throw new WeatherApiException("Cache weigher cannot be null");
+            }
+            if (evictionPolicy == null) {
+                throw new WeatherApiException("Eviction policy cannot be null");
+            }
+            if (cacheTtl == null || cacheTtl.getSeconds() < 1) {
+                throw new WeatherApiException("Cache TTL must be at least one second");
+            }
+            if (pollingInterval == null || pollingInterval.isNegative() || pollingInterval.isZero()) {
+                throw new WeatherApiException("Polling interval must be positive");
+            }
+            if (pollingConcurrency <= 0) {
+                throw new WeatherApiException("Polling concurrency must be positive");
+            }
+            if (bulkParallelism <= 0) {
+                throw new WeatherApiException("Bulk parallelism must be positive");
+            }
+            if (!(warmUpRate > 0 && warmUpRate < Double.POSITIVE_INFINITY)) {
+                throw new WeatherApiException("Warm-up rate must be positive");
+            }
+            if (rateLimit != null && !(rateLimit > 0 && rateLimit < Double.POSITIVE_INFINITY)) {
+                throw new WeatherApiException("Rate limit must be positive");
+            }
+            if (rateLimitBurst != null && rateLimitBurst <= 0) {
+                throw new WeatherApiException("Rate limit burst must be positive");
+            }
+            if (rateLimitMaxWait == null || rateLimitMaxWait.isNegative()) {
+                throw new WeatherApiException("Rate limit max wait must not be negative");
+            }
+            if (maxRetries < 0) {
+                throw new WeatherApiException("Max retries must not be negative");
+            }
+            if (retryBaseDelay == null || retryBaseDelay.isNegative() || retryBaseDelay.isZero()
+                    || retryMaxDelay == null || retryMaxDelay.compareTo(retryBaseDelay) < 0) {
+                throw new WeatherApiException("Retry backoff must be positive, with max delay not shorter than base delay");
+            }
+            if (requestDeadline == null || requestDeadline.isNegative() || requestDeadline.isZero()) {
+                throw new WeatherApiException("Request deadline must be positive");
+            }
+            if (!(circuitBreakerFailureRate > 0 && circuitBreakerFailureRate <= 1)) {
+                throw new WeatherApiException("Circuit breaker failure rate must be greater than 0 and at most 1");
+            }
+            if (circuitBreakerWindowSize <= 0) {
+                throw new WeatherApiException("Circuit breaker window size must be positive");
+            }
+            if (circuitBreakerOpenDuration == null || circuitBreakerOpenDuration.isNegative()
+                    || circuitBreakerOpenDuration.isZero()) {
+                throw new WeatherApiException("Circuit breaker open duration must be positive");
+            }
+            if (hedgePercentile != null && !(hedgePercentile > 0 && hedgePercentile < 100)) {
+                throw new WeatherApiException("Hedge percentile must be greater than 0 and less than 100");
+            }
+            if (!(hedgeBudget > 0 && hedgeBudget <= 1)) {
+                throw new WeatherApiException("Hedge budget must be greater than 0 and at most 1");
+            }
+            if (snapshotInterval == null || snapshotInterval.isNegative() || snapshotInterval.isZero()) {
+                throw new WeatherApiException("Snapshot interval must be positive");
+            }
+            if (hardTtl != null && hardTtl.compareTo(cacheTtl) < 0) {
+                throw new WeatherApiException("Hard TTL must not be shorter than cache TTL");
+            }
+            if (geocodingCacheCapacity <= 0) {
+                throw new WeatherApiException("Geocoding cache capacity must be positive");
+            }
+            if (geocodingCacheTtl == null || geocodingCacheTtl.isNegative() || geocodingCacheTtl.isZero()) {
+                throw new WeatherApiException("Geocoding cache TTL must be positive");
+            }
+            if (negativeCacheTtl == null || negativeCacheTtl.isNegative() || negativeCacheTtl.isZero()) {
+                throw new WeatherApiException("Negative cache TTL must be positive");
+            }
+            if (unknownCityFilterCapacity < 0) {
+                throw new WeatherApiException("Unknown city filter capacity must not be negative");
+            }
+            if (coordinateCacheCapacity <= 0) {
+                throw new WeatherApiException("Coordinate cache capacity must be positive");
+            }
+            if (!(coordinatePrecision >= CoordinateCache.MIN_PRECISION && coordinatePrecision <= 1)) {
+                throw new WeatherApiException("Coordinate precision must be between "
+                        + CoordinateCache.MIN_PRECISION + " and 1 degree");
+            }
+            return register(this);
+        }
+    }
 }
-
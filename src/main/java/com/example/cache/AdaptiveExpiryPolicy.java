@@ -0,0 +1,97 @@
+package com.example.cache;
+
+import com.example.model.WeatherData;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * {@link ExpiryPolicy#adaptive(Duration, Duration, Duration)} implementation.
+ *
+ * <p>The base lifetime lasts until the provider's next expected observation,
+ * {@code dt + updateInterval}. Compared with the replaced entry, a reading is stable if
+ * the temperature moved less than {@value #STABLE_TEMPERATURE_DELTA}°, the wind less than
+ * {@value #STABLE_WIND_DELTA} m/s and the condition stayed the same; it is volatile if the
+ * temperature moved at least {@value #VOLATILE_TEMPERATURE_DELTA}°, the wind at least
+ * {@value #VOLATILE_WIND_DELTA} m/s or the condition changed. Stable readings double the
+ * previous lifetime and volatile ones halve it.</p>
+ */
+final class AdaptiveExpiryPolicy implements ExpiryPolicy {
+    static final Duration DEFAULT_UPDATE_INTERVAL = Duration.ofMinutes(10);
+    static final Duration DEFAULT_MIN_TTL = Duration.ofMinutes(1);
+    static final Duration DEFAULT_MAX_TTL = Duration.ofMinutes(30);
+    static final double STABLE_TEMPERATURE_DELTA = 0.5;
+    static final double STABLE_WIND_DELTA = 1.0;
+    static final double VOLATILE_TEMPERATURE_DELTA = 2.0;
+    static final double VOLATILE_WIND_DELTA = 3.0;
+
+    private final long updateIntervalMillis;
+    private final long minTtlMillis;
+    private final long maxTtlMillis;
+
+    AdaptiveExpiryPolicy(Duration updateInterval, Duration minTtl, Duration maxTtl) {
+        if (updateInterval.isNegative() || updateInterval.isZero()) {
+            throw new IllegalArgumentException("updateInterval must be positive: " + updateInterval);
+        }
+        if (minTtl.isNegative() || minTtl.isZero()) {
+            throw new IllegalArgumentException("minTtl must be positive: " + minTtl);
+        }
+        if (maxTtl.compareTo(minTtl) < 0) {
+            throw new IllegalArgumentException("maxTtl must not be shorter than minTtl: " + maxTtl);
+        }
+        this.updateIntervalMillis = updateInterval.toMillis();
+        this.minTtlMillis = minTtl.toMillis();
+        this.maxTtlMillis = maxTtl.toMillis();
+    }
+
+    @Override
+    public Instant expiresAt(WeatherData weatherData, WeatherCacheEntry previous, Instant receivedAt) {
+        long now = receivedAt.toEpochMilli();
+        Long dt = weatherData.getDatetime();
+        long observedAt = dt != null ? Math.min(now, dt * 1000) : now;
+        long lifetime = observedAt + updateIntervalMillis - now;
+
+        WeatherData previousData = previous != null ? previous.getWeatherData() : null;
+        Instant previousExpiry = previous != null ? previous.getExpiresAt() : null;
+        if (previousData != null && previousExpiry != null) {
+            long previousLifetime = previousExpiry.toEpochMilli() - previous.getTimestamp().toEpochMilli();
+            if (isStable(previousData, weatherData)) {
+                lifetime = Math.max(lifetime, 2 * previousLifetime);
+            } else if (isVolatile(previousData, weatherData)) {
+                lifetime = Math.min(lifetime, previousLifetime / 2);
+            }
+        }
+        return receivedAt.plusMillis(Math.max(minTtlMillis, Math.min(maxTtlMillis, lifetime)));
+    }
+
+    static boolean isStable(WeatherData previous, WeatherData current) {
+        return current.getDatetime() != null && current.getDatetime().equals(previous.getDatetime())
+                || delta(temperature(previous), temperature(current)) < STABLE_TEMPERATURE_DELTA
+                && delta(windSpeed(previous), windSpeed(current)) < STABLE_WIND_DELTA
+                && Objects.equals(condition(previous), condition(current));
+    }
+
+    static boolean isVolatile(WeatherData previous, WeatherData current) {
+        return delta(temperature(previous), temperature(current)) >= VOLATILE_TEMPERATURE_DELTA
+                || delta(windSpeed(previous), windSpeed(current)) >= VOLATILE_WIND_DELTA
+                || !Objects.equals(condition(previous), condition(current));
+    }
+
+    private static double delta(Double a, Double b) {
+        return a != null && b != null ? Math.abs(a - b) : a == null && b == null ? 0 : Double.POSITIVE_INFINITY;
+    }
+
+    private static Double temperature(WeatherData data) {
+        return data.getTemperature() != null ? data.getTemperature().getTemp() : null;
+    }
+
+    private static Double windSpeed(WeatherData data) {
+        return data.getWind() != null ? data.getWind().getSpeed() : null;
+    }
+
+    private static String condition(WeatherData data) {
+        WeatherData.Weather[] weather = data.getWeather();
+        return weather != null && weather.length > 0 ? weather[0].getMain() : null;
+    }
+}
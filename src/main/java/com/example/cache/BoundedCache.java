@@ -0,0 +1,627 @@
+package com.example.cache;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrent cache bounded by entry count or total weight, with LRU (Least Recently Used) or
+ * {@link EvictionPolicy#W_TINY_LFU W-TinyLFU} eviction.
+ *
+ * <p>Used internally by {@link com.example.WeatherSdk} for caching weather data.
+ * Entries live in a {@link ConcurrentHashMap}, so a lookup never blocks. Instead of
+ * reordering the eviction order on every hit, reads are recorded in striped, lossy
+ * {@link ReadBuffer}s and replayed against the {@link EvictionStrategy} in batches by
+ * whichever thread holds the eviction lock. Writes take that lock briefly to keep the
+ * eviction order and the size bound exact.</p>
+ *
+ * <p>Under heavy contention a small share of recorded reads may be dropped, which only
+ * makes the eviction order approximate; the size bound is always respected.</p>
+ *
+ * <p>With a {@link Weigher}, the bound is a maximum total weight instead, e.g. a byte
+ * budget with {@link Weigher#retainedBytes()}. Each entry is weighed when it is written,
+ * and entries are evicted until the total fits.</p>
+ *
+ * <p>Optionally, entries expire a fixed time after they were written, or at a time given
+ * per entry. Expired entries are treated as absent at once, and are removed by a
+ * {@link TimerWheel} without scanning the map: on writes, whenever a read finds an expired
+ * entry or drains the read buffers, and on {@link #cleanUp()}.</p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ * @author Weather SDK Team
+ * @see com.example.WeatherSdk
+ */
+public final class BoundedCache<K, V> {
+    private static final long MAXIMUM_EXPIRY_NANOS = Long.MAX_VALUE >> 1; // keeps deadlines from overflowing
+    private static final int READ_BUFFER_STRIPES =
+            ceilingPowerOfTwo(4 * Runtime.getRuntime().availableProcessors());
+
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private static final long WEIGHTED_SKETCH_SIZE = 1 << 16; // expected entries when bounded by weight
+
+    private final long maximum; // entries, or total weight if weighted
+    private final Weigher<? super K, ? super V> weigher; // null = every entry weighs 1
+    private long weightedSize; // guarded by evictionLock
+    private final long expireAfterWriteNanos; // 0 = never expire
+    private final LongSupplier ticker;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final EvictionStrategy<K, V> evictionStrategy; // guarded by evictionLock
+    private final ReadBuffer<Node<K, V>>[] readBuffers;
+    private final TimerWheel<K, V> timerWheel; // guarded by evictionLock
+    private final Consumer<Node<K, V>> onAccess = this::onAccess;
+    private final Consumer<Node<K, V>> onExpired = this::onExpired;
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache holding at most {@code maximumSize} entries.
+     *
+     * @param maximumSize maximum number of entries, must be positive
+     * @throws IllegalArgumentException if maximumSize is not positive
+     */
+    public BoundedCache(long maximumSize) {
+        this(maximumSize, null, EvictionPolicy.LRU, System::nanoTime);
+    }
+
+    /**
+     * Creates a cache holding at most {@code maximumSize} entries, each of which
+     * expires {@code expireAfterWrite} after it was written.
+     *
+     * @param maximumSize maximum number of entries, must be positive
+     * @param expireAfterWrite entry time-to-live, or null for entries that never expire
+     * @throws IllegalArgumentException if maximumSize or expireAfterWrite is not positive
+     */
+    public BoundedCache(long maximumSize, Duration expireAfterWrite) {
+        this(maximumSize, expireAfterWrite, EvictionPolicy.LRU, System::nanoTime);
+    }
+
+    /**
+     * Creates a cache holding at most {@code maximumSize} entries, evicting them
+     * according to the given policy.
+     *
+     * @param maximumSize maximum number of entries, must be positive
+     * @param expireAfterWrite entry time-to-live, or null for entries that never expire
+     * @param evictionPolicy policy selecting the entries to evict
+     * @throws IllegalArgumentException if maximumSize or expireAfterWrite is not positive
+     */
+    public BoundedCache(long maximumSize, Duration expireAfterWrite, EvictionPolicy evictionPolicy) {
+        this(maximumSize, expireAfterWrite, evictionPolicy, System::nanoTime);
+    }
+
+    /**
+     * Creates a cache with a custom time source, package-private for tests.
+     */
+    BoundedCache(long maximumSize, Duration expireAfterWrite, LongSupplier ticker) {
+        this(maximumSize, expireAfterWrite, EvictionPolicy.LRU, ticker);
+    }
+
+    BoundedCache(long maximumSize, Duration expireAfterWrite, EvictionPolicy evictionPolicy, LongSupplier ticker) {
+        this(maximumSize, null, expireAfterWrite, evictionPolicy, ticker);
+    }
+
+    /**
+     * Creates a cache whose entries weigh at most {@code maximumWeight} in total,
+     * evicting them according to the given policy.
+     *
+     * @param maximumWeight maximum total weight, must be positive
+     * @param weigher computes the weight of each entry
+     * @param expireAfterWrite entry time-to-live, or null for entries that never expire
+     * @param evictionPolicy policy selecting the entries to evict
+     * @throws IllegalArgumentException if maximumWeight or expireAfterWrite is not positive,
+     *         or weigher is null
+     */
+    public BoundedCache(long maximumWeight, Weigher<? super K, ? super V> weigher, Duration expireAfterWrite,
+                        EvictionPolicy evictionPolicy) {
+        this(maximumWeight, checkWeigher(weigher), expireAfterWrite, evictionPolicy, System::nanoTime);
+    }
+
+    private static <T> T checkWeigher(T weigher) {
+        if (weigher == null) {
+            throw new IllegalArgumentException("Weigher cannot be null");
+        }
+        return weigher;
+    }
+
+    @SuppressWarnings("unchecked")
+    BoundedCache(long maximum, Weigher<? super K, ? super V> weigher, Duration expireAfterWrite,
+                 EvictionPolicy evictionPolicy, LongSupplier ticker) {
+        if (maximum <= 0) {
+            throw new IllegalArgumentException(weigher != null
+                    ? "Maximum cache weight must be positive" : "Maximum cache size must be positive");
+        }
+        if (expireAfterWrite != null && (expireAfterWrite.isNegative() || expireAfterWrite.isZero())) {
+            throw new IllegalArgumentException("Expiration time must be positive");
+        }
+        this.maximum = maximum;
+        this.weigher = weigher;
+        this.expireAfterWriteNanos = expireAfterWrite != null ? expireAfterWrite.toNanos() : 0;
+        this.ticker = ticker;
+        long expectedSize = weigher != null ? Math.min(maximum, WEIGHTED_SKETCH_SIZE) : maximum;
+        this.evictionStrategy = evictionPolicy.newStrategy(maximum, expectedSize);
+        this.timerWheel = new TimerWheel<>(ticker.getAsLong());
+        this.data = new ConcurrentHashMap<>((int) Math.min(expectedSize, 1 << 16));
+        this.readBuffers = (ReadBuffer<Node<K, V>>[]) new ReadBuffer<?>[READ_BUFFER_STRIPES];
+        for (int i = 0; i < readBuffers.length; i++) {
+            readBuffers[i] = new ReadBuffer<>();
+        }
+    }
+
+    /**
+     * Returns the value for the key and records the access for the eviction order.
+     *
+     * <p>As with {@link ConcurrentHashMap#get(Object)}, the key may be any object whose
+     * {@code hashCode} matches the stored key's and whose {@code equals} accepts it, e.g.
+     * a reusable lookup key that avoids creating a key object per call.</p>
+     *
+     * @param key cache key, or an object equal to it
+     * @return cached value or null if absent or expired
+     */
+    public V get(Object key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        TimedValue<V> current = node.current;
+        if (isExpired(current)) {
+            tryExpireEntries();
+            return null;
+        }
+        recordRead(node);
+        return current.value;
+    }
+
+    /**
+     * Returns the value for the key without affecting the eviction order.
+     *
+     * @param key cache key
+     * @return cached value or null if absent or expired
+     */
+    public V peek(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        TimedValue<V> current = node.current;
+        return !isExpired(current) ? current.value : null;
+    }
+
+    /**
+     * Associates the value with the key, evicting entries chosen by the eviction
+     * policy if the cache grows beyond its maximum size or weight.
+     *
+     * @param key cache key
+     * @param value value to cache
+     * @return previous value or null if there was none
+     */
+    public V put(K key, V value) {
+        return put(key, value, 0);
+    }
+
+    /**
+     * Associates the value with the key for the given time, overriding the cache's
+     * expiration time for this entry.
+     *
+     * @param key cache key
+     * @param value value to cache
+     * @param expireAfter time until the entry expires, must be positive
+     * @param unit unit of {@code expireAfter}
+     * @return previous value or null if there was none
+     * @throws IllegalArgumentException if expireAfter is not positive, or if the weigher
+     *         returns a negative weight
+     */
+    public V put(K key, V value, long expireAfter, TimeUnit unit) {
+        if (expireAfter <= 0) {
+            throw new IllegalArgumentException("Expiration time must be positive");
+        }
+        return put(key, value, 0, Math.min(unit.toNanos(expireAfter), MAXIMUM_EXPIRY_NANOS));
+    }
+
+    /**
+     * Associates the value with the key as if it had been written {@code ageNanos} ago,
+     * e.g. when restoring a snapshot. Package-private for cache components.
+     */
+    V put(K key, V value, long ageNanos) {
+        return put(key, value, ageNanos, expireAfterWriteNanos);
+    }
+
+    private V put(K key, V value, long ageNanos, long expireAfterNanos) {
+        int weight = weigh(key, value);
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            long now = ticker.getAsLong();
+            timerWheel.advance(now, onExpired);
+            Node<K, V> existing = data.get(key);
+            if (existing != null) {
+                TimedValue<V> previous = existing.current;
+                int previousWeight = existing.weight;
+                existing.current = new TimedValue<>(value, now - ageNanos, expireAfterNanos);
+                existing.weight = weight;
+                weightedSize += weight - previousWeight;
+                evictionStrategy.onUpdate(existing, previousWeight);
+                scheduleExpiration(existing);
+                evictIfNeeded();
+                return previous.isExpired(now) ? null : previous.value;
+            }
+            Node<K, V> node = new Node<>(key, value, now - ageNanos, expireAfterNanos);
+            node.weight = weight;
+            data.put(key, node);
+            weightedSize += weight;
+            evictionStrategy.onAdd(node);
+            scheduleExpiration(node);
+            evictIfNeeded();
+            return null;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the entry for the key.
+     *
+     * @param key cache key
+     * @return removed value or null if absent
+     */
+    public V remove(K key) {
+        evictionLock.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (node == null) {
+                return null;
+            }
+            evictionStrategy.onRemove(node);
+            timerWheel.deschedule(node);
+            weightedSize -= node.weight;
+            return node.current.value;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            for (Node<K, V> node : data.values()) {
+                evictionStrategy.onRemove(node);
+                timerWheel.deschedule(node);
+            }
+            data.clear();
+            weightedSize = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the current number of entries, including expired entries
+     * that have not been removed yet.
+     *
+     * @return number of entries in the cache
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * Gets the total weight of the entries, including expired entries that have not
+     * been removed yet.
+     *
+     * @return sum of the entry weights, or the number of entries if the cache has no weigher
+     */
+    public long weightedSize() {
+        evictionLock.lock();
+        try {
+            return weightedSize;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of entries evicted to respect the maximum size or weight.
+     *
+     * @return number of evictions since the cache was created
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Gets the maximum number of entries.
+     *
+     * @return maximum number of entries, or {@link Long#MAX_VALUE} if the cache is bounded by weight
+     */
+    public long getMaximumSize() {
+        return weigher == null ? maximum : Long.MAX_VALUE;
+    }
+
+    /**
+     * Gets the maximum total weight.
+     *
+     * @return maximum total weight, or the maximum number of entries if the cache has no weigher
+     */
+    public long getMaximumWeight() {
+        return maximum;
+    }
+
+    /**
+     * Checks whether the cache is bounded by weight rather than by entry count.
+     *
+     * @return true if the cache was created with a weigher
+     */
+    public boolean isWeighted() {
+        return weigher != null;
+    }
+
+    /**
+     * Returns a weakly consistent, read-only view of the keys.
+     *
+     * @return view of the cached keys
+     */
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(data.keySet());
+    }
+
+    /**
+     * Performs the action for each unexpired entry without affecting the eviction order.
+     * The iteration is weakly consistent.
+     *
+     * @param action action to perform
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        data.forEach((key, node) -> {
+            TimedValue<V> current = node.current;
+            if (!isExpired(current)) {
+                action.accept(key, current.value);
+            }
+        });
+    }
+
+    /**
+     * Performs the action for each unexpired entry, passing the time since the entry
+     * was written. Package-private for cache components.
+     */
+    void forEachWithAge(EntryVisitor<? super K, ? super V> visitor) {
+        long now = ticker.getAsLong();
+        data.forEach((key, node) -> {
+            TimedValue<V> current = node.current;
+            if (!current.isExpired(now)) {
+                visitor.visit(key, current.value, now - current.writeTime);
+            }
+        });
+    }
+
+    /**
+     * Gets the configured expiration time.
+     *
+     * @return time-to-live in nanoseconds, or 0 if entries never expire
+     */
+    long getExpireAfterWriteNanos() {
+        return expireAfterWriteNanos;
+    }
+
+    /**
+     * Applies buffered reads to the eviction order and removes expired entries.
+     * Takes time proportional to the number of expired entries, not the cache size.
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            timerWheel.advance(ticker.getAsLong(), onExpired);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private boolean isExpired(TimedValue<V> value) {
+        return value.expireAfterNanos != 0 && value.isExpired(ticker.getAsLong());
+    }
+
+    private void scheduleExpiration(Node<K, V> node) {
+        if (node.current.expireAfterNanos != 0) {
+            timerWheel.reschedule(node);
+        } else {
+            timerWheel.deschedule(node);
+        }
+    }
+
+    private void onExpired(Node<K, V> node) {
+        if (data.remove(node.key, node)) {
+            evictionStrategy.onRemove(node);
+            weightedSize -= node.weight;
+        }
+    }
+
+    private int weigh(K key, V value) {
+        if (weigher == null) {
+            return 1;
+        }
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Entry weight must not be negative: " + weight);
+        }
+        return weight;
+    }
+
+    private void recordRead(Node<K, V> node) {
+        ReadBuffer<Node<K, V>> buffer = readBuffers[stripeIndex()];
+        if (buffer.offer(node) == ReadBuffer.FULL && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+                onAccess(node);
+                timerWheel.advance(ticker.getAsLong(), onExpired);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Removes expired entries unless another thread holds the eviction lock, so that a
+     * cache that is only read still frees their slots.
+     */
+    private void tryExpireEntries() {
+        if (evictionLock.tryLock()) {
+            try {
+                timerWheel.advance(ticker.getAsLong(), onExpired);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffers() {
+        for (ReadBuffer<Node<K, V>> buffer : readBuffers) {
+            buffer.drainTo(onAccess);
+        }
+    }
+
+    private void onAccess(Node<K, V> node) {
+        evictionStrategy.onAccess(node);
+    }
+
+    private void evictIfNeeded() {
+        while (weightedSize > maximum) {
+            Node<K, V> victim = evictionStrategy.evict();
+            if (victim == null) {
+                return;
+            }
+            data.remove(victim.key, victim);
+            timerWheel.deschedule(victim);
+            weightedSize -= victim.weight;
+            evictions.increment();
+        }
+    }
+
+    private static int stripeIndex() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (READ_BUFFER_STRIPES - 1);
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(x - 1);
+    }
+
+    /**
+     * Receives entries together with their age.
+     */
+    @FunctionalInterface
+    interface EntryVisitor<K, V> {
+        void visit(K key, V value, long ageNanos);
+    }
+
+    /**
+     * Cache entry linked into the eviction strategy's lists.
+     */
+    static final class Node<K, V> {
+        final K key;
+        volatile TimedValue<V> current; // replaced as a whole, so readers never see a torn update
+        int weight; // guarded by evictionLock
+        Node<K, V> prev; // guarded by evictionLock
+        Node<K, V> next; // guarded by evictionLock
+        Node<K, V> prevInTimer; // guarded by evictionLock
+        Node<K, V> nextInTimer; // guarded by evictionLock
+        byte queue; // guarded by evictionLock; list of WindowTinyLfuStrategy, 0 = none
+
+        Node(K key, V value, long writeTime) {
+            this(key, value, writeTime, 0);
+        }
+
+        Node(K key, V value, long writeTime, long expireAfterNanos) {
+            this.key = key;
+            this.current = new TimedValue<>(value, writeTime, expireAfterNanos);
+        }
+
+        long getExpirationTime() {
+            TimedValue<V> current = this.current;
+            return current.writeTime + current.expireAfterNanos;
+        }
+    }
+
+    /**
+     * Value of a node together with its write time and time-to-live, so that an update
+     * publishes all three in a single write.
+     */
+    static final class TimedValue<V> {
+        final V value;
+        final long writeTime;
+        final long expireAfterNanos; // 0 = never expire
+
+        TimedValue(V value, long writeTime, long expireAfterNanos) {
+            this.value = value;
+            this.writeTime = writeTime;
+            this.expireAfterNanos = expireAfterNanos;
+        }
+
+        boolean isExpired(long now) {
+            return expireAfterNanos != 0 && now - writeTime >= expireAfterNanos;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list of nodes, least recently used first.
+     * A node is in at most one list at a time.
+     */
+    static final class AccessOrderDeque<K, V> {
+        private Node<K, V> first;
+        private Node<K, V> last;
+
+        boolean contains(Node<K, V> node) {
+            return node.prev != null || node.next != null || first == node;
+        }
+
+        Node<K, V> peekFirst() {
+            return first;
+        }
+
+        void add(Node<K, V> node) {
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        void remove(Node<K, V> node) {
+            if (!contains(node)) {
+                return;
+            }
+            Node<K, V> prev = node.prev;
+            Node<K, V> next = node.next;
+            if (prev == null) {
+                first = next;
+            } else {
+                prev.next = next;
+            }
+            if (next == null) {
+                last = prev;
+            } else {
+                next.prev = prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (node != last) {
+                remove(node);
+                add(node);
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.cache;
+
+import com.example.internal.WeatherApiClient.GeocodingResult;
+import com.example.model.WeatherData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary snapshot of the weather and geocoding caches on local disk.
+ *
+ * <p>Used internally by {@link com.example.WeatherSdk} to warm its caches after a restart.
+ * The file starts with a magic number and a format version, followed by a section of
+ * weather entries and a section of geocoding entries. Strings are stored as length-prefixed
+ * UTF-8 and weather payloads as length-prefixed JSON, so a snapshot of 10,000 cities takes a
+ * few megabytes.</p>
+ *
+ * <p>Snapshots are written to a temporary file and atomically moved into place, so a crash
+ * never leaves a half-written snapshot. They are read through a memory-mapped buffer, and
+ * entries that have already expired are skipped.</p>
+ *
+ * @author Weather SDK Team
+ * @see com.example.WeatherSdk
+ */
+public final class CacheSnapshot {
+    private static final int MAGIC = 0x57534E50; // "WSNP"
+    private static final int VERSION = 1;
+    private static final int NO_STRING = -1;
+
+    private CacheSnapshot() {
+    }
+
+    /**
+     * Writes both caches to the snapshot file, replacing the previous snapshot.
+     *
+     * @param file snapshot file
+     * @param weatherCache weather cache keyed by normalized city name
+     * @param geocodingCache geocoding cache
+     * @param objectMapper mapper used to serialize weather data
+     * @return number of entries written
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static int write(Path file, BoundedCache<String, WeatherCacheEntry> weatherCache,
+                            GeocodingCache geocodingCache, ObjectMapper objectMapper) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        int[] count = new int[2];
+        try {
+            try (OutputStream fileOut = Files.newOutputStream(tempFile);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+
+                // Entry counts are not known up front, so each entry is preceded by a marker
+                IOException[] failure = new IOException[1];
+                weatherCache.forEach((key, entry) -> {
+                    if (failure[0] != null || entry.getWeatherData() == null) {
+                        return;
+                    }
+                    try {
+                        out.writeBoolean(true);
+                        writeString(out, key);
+                        writeString(out, entry.getCityName());
+                        out.writeLong(entry.getTimestamp().toEpochMilli());
+                        byte[] payload = objectMapper.writeValueAsBytes(entry.getWeatherData());
+                        out.writeInt(payload.length);
+                        out.write(payload);
+                        count[0]++;
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                });
+                out.writeBoolean(false);
+
+                long now = System.currentTimeMillis();
+                geocodingCache.forEach((key, result, ageMillis) -> {
+                    if (failure[0] != null) {
+                        return;
+                    }
+                    try {
+                        out.writeBoolean(true);
+                        writeString(out, key);
+                        writeString(out, result.name);
+                        writeString(out, result.country);
+                        out.writeDouble(result.lat);
+                        out.writeDouble(result.lon);
+                        out.writeLong(now - ageMillis);
+                        count[1]++;
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                });
+                out.writeBoolean(false);
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        return count[0] + count[1];
+    }
+
+    /**
+     * Loads unexpired entries from the snapshot file into the caches.
+     *
+     * @param file snapshot file
+     * @param weatherCache weather cache keyed by normalized city name
+     * @param weatherTtlSeconds age after which weather entries are skipped
+     * @param geocodingCache geocoding cache
+     * @param objectMapper mapper used to deserialize weather data
+     * @return number of entries restored; 0 if the file does not exist
+     * @throws IOException if the snapshot cannot be read or is corrupt
+     */
+    public static int load(Path file, BoundedCache<String, WeatherCacheEntry> weatherCache, long weatherTtlSeconds,
+                           GeocodingCache geocodingCache, ObjectMapper objectMapper) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a cache snapshot: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported cache snapshot version: " + version);
+            }
+
+            int restored = 0;
+            while (buffer.get() != 0) {
+                String key = readString(buffer);
+                String cityName = readString(buffer);
+                Instant timestamp = Instant.ofEpochMilli(buffer.getLong());
+                int length = buffer.getInt();
+                WeatherCacheEntry entry = new WeatherCacheEntry(cityName, null, timestamp);
+                if (!entry.isUpToDate(weatherTtlSeconds)) {
+                    // Skip the payload without parsing it
+                    buffer.position(buffer.position() + length);
+                    continue;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                WeatherData weatherData = objectMapper.readValue(payload, WeatherData.class);
+                // Restored with their age, so that the cache's expiration counts from the original load
+                long ageNanos = TimeUnit.MILLISECONDS.toNanos(
+                        Math.max(0, System.currentTimeMillis() - timestamp.toEpochMilli()));
+                weatherCache.put(key, new WeatherCacheEntry(cityName, weatherData, timestamp), ageNanos);
+                restored++;
+            }
+
+            long now = System.currentTimeMillis();
+            while (buffer.get() != 0) {
+                String key = readString(buffer);
+                GeocodingResult result = new GeocodingResult();
+                result.name = readString(buffer);
+                result.country = readString(buffer);
+                result.lat = buffer.getDouble();
+                result.lon = buffer.getDouble();
+                long cachedAt = buffer.getLong();
+                if (geocodingCache.restore(key, result, now - cachedAt)) {
+                    restored++;
+                }
+            }
+            return restored;
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("Corrupt cache snapshot: " + file, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NO_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NO_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.cache;
+
+import java.util.Arrays;
+
+/**
+ * Snapshot of weather cache statistics.
+ *
+ * <p>Returned by {@link com.example.WeatherSdk#getCacheStats()}. Counts are cumulative
+ * since the SDK instance was created. Load latencies are kept in a histogram of
+ * {@value #LATENCY_BUCKETS} power-of-two buckets: bucket 0 counts loads faster than
+ * 1 ms, bucket {@code i} loads of {@code [2^(i-1), 2^i)} ms, and the last bucket
+ * everything slower.</p>
+ *
+ * @author Weather SDK Team
+ */
+public final class CacheStats {
+    /** Number of buckets in the load latency histogram. */
+    public static final int LATENCY_BUCKETS = 18;
+
+    private final long hitCount;
+    private final long missCount;
+    private final long expirationCount;
+    private final long evictionCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadTimeNanos;
+    private final long[] loadLatencyHistogram;
+
+    /**
+     * Creates a statistics snapshot.
+     *
+     * @param hitCount lookups answered from the cache, including stale entries served in
+     *                 STALE_WHILE_REVALIDATE mode
+     * @param missCount lookups that had to wait for the API
+     * @param expirationCount lookups that found an entry older than the TTL
+     * @param evictionCount entries removed to respect the capacity
+     * @param loadSuccessCount successful API loads
+     * @param loadFailureCount failed API loads
+     * @param totalLoadTimeNanos time spent in all loads
+     * @param loadLatencyHistogram load counts per latency bucket, {@value #LATENCY_BUCKETS} entries
+     */
+    public CacheStats(long hitCount, long missCount, long expirationCount, long evictionCount,
+                      long loadSuccessCount, long loadFailureCount, long totalLoadTimeNanos,
+                      long[] loadLatencyHistogram) {
+        if (loadLatencyHistogram.length != LATENCY_BUCKETS) {
+            throw new IllegalArgumentException("Expected " + LATENCY_BUCKETS + " latency buckets");
+        }
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.expirationCount = expirationCount;
+        this.evictionCount = evictionCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+        this.loadLatencyHistogram = loadLatencyHistogram.clone();
+    }
+
+    public long getHitCount() { return hitCount; }
+    public long getMissCount() { return missCount; }
+    public long getExpirationCount() { return expirationCount; }
+    public long getEvictionCount() { return evictionCount; }
+    public long getLoadSuccessCount() { return loadSuccessCount; }
+    public long getLoadFailureCount() { return loadFailureCount; }
+    public long getTotalLoadTimeNanos() { return totalLoadTimeNanos; }
+
+    /**
+     * Gets the load latency histogram.
+     *
+     * @return copy of the load counts per bucket, see {@link #getBucketUpperBoundMillis(int)}
+     */
+    public long[] getLoadLatencyHistogram() {
+        return loadLatencyHistogram.clone();
+    }
+
+    /**
+     * Gets the number of lookups.
+     *
+     * @return hits plus misses
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * Gets the share of lookups answered from the cache.
+     *
+     * @return hit rate from 0 to 1, or 1 if there were no lookups
+     */
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Gets the average time of a load.
+     *
+     * @return average load time in nanoseconds, or 0 if there were no loads
+     */
+    public double getAverageLoadPenaltyNanos() {
+        long loads = loadSuccessCount + loadFailureCount;
+        return loads == 0 ? 0.0 : (double) totalLoadTimeNanos / loads;
+    }
+
+    /**
+     * Gets the exclusive upper bound of a latency bucket.
+     *
+     * @param bucket bucket index, from 0 to {@code LATENCY_BUCKETS - 1}
+     * @return upper bound in milliseconds, or {@link Long#MAX_VALUE} for the last bucket
+     */
+    public static long getBucketUpperBoundMillis(int bucket) {
+        return bucket >= LATENCY_BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    /**
+     * Gets the bucket a load latency falls into.
+     *
+     * @param latencyNanos load time in nanoseconds
+     * @return bucket index
+     */
+    static int bucketOf(long latencyNanos) {
+        long millis = latencyNanos / 1_000_000;
+        return millis <= 0 ? 0 : Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hitCount=" + hitCount + ", missCount=" + missCount
+                + ", expirationCount=" + expirationCount + ", evictionCount=" + evictionCount
+                + ", loadSuccessCount=" + loadSuccessCount + ", loadFailureCount=" + loadFailureCount
+                + ", totalLoadTimeNanos=" + totalLoadTimeNanos
+                + ", loadLatencyHistogram=" + Arrays.toString(loadLatencyHistogram) + "}";
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.cache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of weather data for coordinate lookups.
+ *
+ * <p>Used internally by {@link com.example.WeatherSdk#getCurrentWeatherByCoordinates(double, double)}.
+ * Latitude and longitude are rounded to a grid of the configured precision (0.01° by default,
+ * roughly 1 km) and packed into a single {@code long} key, so nearby lookups share one entry.
+ * A coarser grid saves API calls at the cost of accuracy. Lookups go through a per-thread
+ * key that hashes and compares like the boxed {@code Long}, so cache hits do not allocate.</p>
+ *
+ * @author Weather SDK Team
+ * @see com.example.WeatherSdk
+ */
+public class CoordinateCache {
+    /** Default maximum number of cached grid cells. */
+    public static final int DEFAULT_CAPACITY = 1_000;
+    /** Default grid precision in degrees. */
+    public static final double DEFAULT_PRECISION = 0.01;
+    /** Finest supported grid precision in degrees (the API accepts six decimal places). */
+    public static final double MIN_PRECISION = 0.000001;
+
+    private static final ThreadLocal<LookupKey> LOOKUP_KEYS = ThreadLocal.withInitial(LookupKey::new);
+
+    private final BoundedCache<Long, WeatherCacheEntry> cache;
+    private final double precision;
+
+    /**
+     * Creates a cache with the given capacity and grid precision.
+     *
+     * @param capacity maximum number of cached grid cells, must be positive
+     * @param precision grid cell size in degrees, from {@value #MIN_PRECISION} to 1
+     * @throws IllegalArgumentException if capacity or precision is out of range
+     */
+    public CoordinateCache(long capacity, double precision) {
+        if (!(precision >= MIN_PRECISION && precision <= 1)) {
+            throw new IllegalArgumentException("Coordinate precision must be between "
+                    + MIN_PRECISION + " and 1 degree");
+        }
+        this.cache = new BoundedCache<>(capacity);
+        this.precision = precision;
+    }
+
+    /**
+     * Packs coordinates rounded to the grid into a single key.
+     * The upper 32 bits hold the latitude cell, the lower 32 bits the longitude cell.
+     *
+     * @param lat latitude (from -90 to 90)
+     * @param lon longitude (from -180 to 180)
+     * @return grid cell key
+     */
+    public long key(double lat, double lon) {
+        long latCell = Math.round(lat / precision);
+        long lonCell = Math.round(lon / precision);
+        return (latCell << 32) | (lonCell & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the latitude of the grid cell center.
+     *
+     * @param key grid cell key
+     * @return latitude of the cell center
+     */
+    public double latitude(long key) {
+        return (key >> 32) * precision;
+    }
+
+    /**
+     * Gets the longitude of the grid cell center.
+     *
+     * @param key grid cell key
+     * @return longitude of the cell center
+     */
+    public double longitude(long key) {
+        return ((int) key) * precision;
+    }
+
+    /**
+     * Gets the cached entry for a grid cell.
+     *
+     * @param key grid cell key
+     * @return cache entry or null if not cached
+     */
+    public WeatherCacheEntry get(long key) {
+        return cache.get(LOOKUP_KEYS.get().reset(key));
+    }
+
+    /**
+     * Stores the entry for a grid cell.
+     *
+     * @param key grid cell key
+     * @param entry cache entry
+     */
+    public void put(long key, WeatherCacheEntry entry) {
+        cache.put(key, entry);
+    }
+
+    /**
+     * Stores the entry for a grid cell until the given time has passed.
+     *
+     * @param key grid cell key
+     * @param entry cache entry
+     * @param retainNanos time after which the entry is removed, must be positive
+     */
+    public void put(long key, WeatherCacheEntry entry, long retainNanos) {
+        cache.put(key, entry, retainNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Removes entries whose retention time has passed.
+     */
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    /**
+     * Gets the grid precision.
+     *
+     * @return grid cell size in degrees
+     */
+    public double getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Gets the number of cached grid cells.
+     *
+     * @return number of cached grid cells
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * View of a grid cell key that hashes and compares like the boxed {@code Long}.
+     * {@link java.util.concurrent.ConcurrentHashMap} compares keys with
+     * {@code lookupKey.equals(storedKey)}, so it finds the stored entry.
+     */
+    private static final class LookupKey {
+        private long value;
+
+        LookupKey reset(long value) {
+            this.value = value;
+            return this;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Long && (Long) o == value;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.cache;
+
+/**
+ * Policy that decides which entry a full {@link BoundedCache} removes.
+ *
+ * @author Weather SDK Team
+ * @see com.example.WeatherSdk.Builder#evictionPolicy(EvictionPolicy)
+ */
+public enum EvictionPolicy {
+    /**
+     * Least recently used entry is evicted.
+     *
+     * <p>Cheap and predictable, but a single scan over many rarely used keys
+     * (e.g. a nightly report over all cities) pushes out every frequently used entry.</p>
+     */
+    LRU,
+
+    /**
+     * Window TinyLFU: new entries pass a small LRU window, then have to beat the main
+     * region's eviction candidate in estimated access frequency to stay.
+     *
+     * <p>Frequencies are kept in a compact count-min sketch that is halved periodically,
+     * so that popularity fades. The main region is a segmented LRU whose protected segment
+     * holds entries accessed more than once. Scans of one-off keys therefore stay in the
+     * window and do not displace popular entries.</p>
+     */
+    W_TINY_LFU;
+
+    <K, V> EvictionStrategy<K, V> newStrategy(long maximum, long expectedSize) {
+        return this == W_TINY_LFU ? new WindowTinyLfuStrategy<>(maximum, expectedSize) : new LruStrategy<>();
+    }
+}
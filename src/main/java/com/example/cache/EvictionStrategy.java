@@ -0,0 +1,44 @@
+package com.example.cache;
+
+import com.example.cache.BoundedCache.Node;
+
+/**
+ * Ordering of the entries of a {@link BoundedCache} that selects eviction victims.
+ *
+ * <p>All methods are called by the owner of the cache's eviction lock.</p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+interface EvictionStrategy<K, V> {
+
+    /**
+     * Registers an entry that was just inserted.
+     */
+    void onAdd(Node<K, V> node);
+
+    /**
+     * Registers a read or an update of an entry. The entry may have been removed
+     * since the read was buffered, in which case the call is ignored.
+     */
+    void onAccess(Node<K, V> node);
+
+    /**
+     * Registers a new value of an entry, which may have changed its weight.
+     *
+     * @param previousWeight weight of the entry before the update
+     */
+    void onUpdate(Node<K, V> node, int previousWeight);
+
+    /**
+     * Unregisters an entry that was removed from the cache.
+     */
+    void onRemove(Node<K, V> node);
+
+    /**
+     * Selects and unregisters the entry to evict.
+     *
+     * @return entry to remove from the cache, or null if no entry is registered
+     */
+    Node<K, V> evict();
+}
@@ -0,0 +1,73 @@
+package com.example.cache;
+
+import com.example.model.WeatherData;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Decides how long freshly loaded weather data stays up to date in the cache.
+ *
+ * <p>Called by {@link com.example.WeatherSdk} every time data is loaded from the API.
+ * Implementations must be thread-safe.</p>
+ *
+ * @author Weather SDK Team
+ * @see com.example.WeatherSdk.Builder#expiryPolicy(ExpiryPolicy)
+ */
+@FunctionalInterface
+public interface ExpiryPolicy {
+
+    /**
+     * Computes when the data expires.
+     *
+     * @param weatherData data just received from the API
+     * @param previous entry the data replaces, or null if there was none
+     * @param receivedAt time the data was received
+     * @return time after which the data must be loaded again, or null to expire it after the cache TTL
+     */
+    Instant expiresAt(WeatherData weatherData, WeatherCacheEntry previous, Instant receivedAt);
+
+    /**
+     * Creates a policy under which data expires a fixed time after it was received.
+     *
+     * @param ttl time-to-live, must be positive
+     * @return fixed policy
+     * @throws IllegalArgumentException if ttl is not positive
+     */
+    static ExpiryPolicy fixed(Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive: " + ttl);
+        }
+        return (weatherData, previous, receivedAt) -> receivedAt.plus(ttl);
+    }
+
+    /**
+     * Creates a policy that follows the provider's update cadence and the weather's volatility.
+     *
+     * <p>Data observed at {@code dt} is expected to be replaced at {@code dt + updateInterval},
+     * so data that was already old when it was received expires sooner. When a refresh returns
+     * the same or a barely changed reading, the previous lifetime is doubled; when the weather
+     * changed a lot, it is halved. Lifetimes stay between {@code minTtl} and {@code maxTtl}.</p>
+     *
+     * @param updateInterval how often the provider publishes a new observation, must be positive
+     * @param minTtl shortest lifetime, must be positive
+     * @param maxTtl longest lifetime, not shorter than minTtl
+     * @return adaptive policy
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    static ExpiryPolicy adaptive(Duration updateInterval, Duration minTtl, Duration maxTtl) {
+        return new AdaptiveExpiryPolicy(updateInterval, minTtl, maxTtl);
+    }
+
+    /**
+     * Creates an adaptive policy for OpenWeather's 10-minute update cadence, with lifetimes
+     * between 1 and 30 minutes.
+     *
+     * @return adaptive policy
+     * @see #adaptive(Duration, Duration, Duration)
+     */
+    static ExpiryPolicy adaptive() {
+        return adaptive(AdaptiveExpiryPolicy.DEFAULT_UPDATE_INTERVAL, AdaptiveExpiryPolicy.DEFAULT_MIN_TTL,
+                AdaptiveExpiryPolicy.DEFAULT_MAX_TTL);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.cache;
+
+/**
+ * Count-min sketch of 4-bit counters estimating how often each key was accessed.
+ *
+ * <p>Used by {@link WindowTinyLfuStrategy}. Each key maps to one counter in each of four
+ * rows; its estimate is the smallest of them. Sixteen counters are packed into one
+ * {@code long}, so the sketch takes 8 bytes per cached entry. After
+ * {@code 10 * maximumSize} increments all counters are halved, so that keys that were
+ * popular long ago lose their advantage.</p>
+ *
+ * <p>Not thread-safe; the cache calls it under its eviction lock.</p>
+ */
+final class FrequencySketch {
+    static final int MAX_FREQUENCY = 15;
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * Creates a sketch sized for a cache of the given capacity.
+     *
+     * @param maximumSize cache capacity, must be positive
+     */
+    FrequencySketch(long maximumSize) {
+        int length = ceilingPowerOfTwo((int) Math.min(Math.max(maximumSize, 16), 1 << 26));
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = 10 * length;
+    }
+
+    /**
+     * Estimates how often the key was accessed since it was last forgotten.
+     *
+     * @param key key to look up
+     * @return estimated frequency, from 0 to {@value #MAX_FREQUENCY}
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_FREQUENCY;
+        for (int row = 0; row < SEEDS.length; row++) {
+            long h = rowHash(hash, row);
+            frequency = Math.min(frequency, counter(h));
+        }
+        return frequency;
+    }
+
+    /**
+     * Counts one access of the key, halving all counters once enough accesses were counted.
+     *
+     * @param key accessed key
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            long h = rowHash(hash, row);
+            if (counter(h) < MAX_FREQUENCY) {
+                table[index(h)] += 1L << shift(h);
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Halves every counter.
+     */
+    void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int counter(long h) {
+        return (int) ((table[index(h)] >>> shift(h)) & 0xfL);
+    }
+
+    private int index(long h) {
+        return (int) h & tableMask;
+    }
+
+    private static int shift(long h) {
+        return (int) (h >>> 60) << 2; // one of the 16 counters in the long
+    }
+
+    private static long rowHash(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        return h ^ (h >>> 29);
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(x - 1);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.cache;
+
+import com.example.internal.WeatherApiClient.GeocodingResult;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of geocoding results (city coordinates) keyed by normalized city name.
+ *
+ * <p>Used internally by {@link com.example.WeatherSdk}. City coordinates practically
+ * never change, so they are kept much longer and in much larger numbers than weather
+ * data: once a city has been geocoded, refreshing its weather takes a single request.</p>
+ *
+ * @author Weather SDK Team
+ * @see com.example.WeatherSdk
+ */
+public class GeocodingCache {
+    /** Default maximum number of cached cities. */
+    public static final int DEFAULT_CAPACITY = 10_000;
+    /** Default time after which coordinates are looked up again. */
+    public static final Duration DEFAULT_TTL = Duration.ofDays(7);
+
+    private final BoundedCache<String, GeocodingResult> cache;
+
+    /**
+     * Creates a cache with the given capacity and time-to-live.
+     *
+     * @param capacity maximum number of cached cities, must be positive
+     * @param ttl time after which coordinates expire, must be positive
+     * @throws IllegalArgumentException if capacity or ttl is not positive
+     */
+    public GeocodingCache(long capacity, Duration ttl) {
+        this.cache = new BoundedCache<>(capacity, ttl);
+    }
+
+    /**
+     * Gets cached coordinates.
+     *
+     * @param normalizedCityName trimmed, lower-case city name
+     * @return geocoding result or null if not cached or expired
+     */
+    public GeocodingResult get(String normalizedCityName) {
+        return cache.get(normalizedCityName);
+    }
+
+    /**
+     * Stores coordinates for a city.
+     *
+     * @param normalizedCityName trimmed, lower-case city name
+     * @param result geocoding result from the API
+     */
+    public void put(String normalizedCityName, GeocodingResult result) {
+        cache.put(normalizedCityName, result);
+    }
+
+    /**
+     * Performs the action for each unexpired entry, passing the time since it was cached.
+     *
+     * @param action receives the normalized city name, the result and its age in milliseconds
+     */
+    public void forEach(EntryAction action) {
+        cache.forEachWithAge((key, result, ageNanos) ->
+                action.accept(key, result, TimeUnit.NANOSECONDS.toMillis(ageNanos)));
+    }
+
+    /**
+     * Restores an entry cached {@code ageMillis} ago, e.g. from a snapshot.
+     * Entries older than the TTL are skipped.
+     *
+     * @param normalizedCityName trimmed, lower-case city name
+     * @param result geocoding result
+     * @param ageMillis time since the result was cached
+     * @return true if the entry was restored, false if it has already expired
+     */
+    public boolean restore(String normalizedCityName, GeocodingResult result, long ageMillis) {
+        long ageNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ageMillis));
+        if (ageNanos >= cache.getExpireAfterWriteNanos()) {
+            return false;
+        }
+        cache.put(normalizedCityName, result, ageNanos);
+        return true;
+    }
+
+    /**
+     * Receives geocoding cache entries.
+     */
+    @FunctionalInterface
+    public interface EntryAction {
+        void accept(String normalizedCityName, GeocodingResult result, long ageMillis);
+    }
+
+    /**
+     * Removes expired entries.
+     */
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    /**
+     * Gets the number of cached cities.
+     *
+     * @return number of cached cities
+     */
+    public int size() {
+        return cache.size();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.cache;
+
+import com.example.cache.BoundedCache.AccessOrderDeque;
+import com.example.cache.BoundedCache.Node;
+
+/**
+ * {@link EvictionPolicy#LRU} strategy: evicts the least recently used entry.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class LruStrategy<K, V> implements EvictionStrategy<K, V> {
+    private final AccessOrderDeque<K, V> accessOrder = new AccessOrderDeque<>();
+
+    @Override
+    public void onAdd(Node<K, V> node) {
+        accessOrder.add(node);
+    }
+
+    @Override
+    public void onAccess(Node<K, V> node) {
+        // Buffered reads may refer to nodes that were removed in the meantime
+        if (accessOrder.contains(node)) {
+            accessOrder.moveToBack(node);
+        }
+    }
+
+    @Override
+    public void onUpdate(Node<K, V> node, int previousWeight) {
+        onAccess(node);
+    }
+
+    @Override
+    public void onRemove(Node<K, V> node) {
+        accessOrder.remove(node);
+    }
+
+    @Override
+    public Node<K, V> evict() {
+        Node<K, V> victim = accessOrder.peekFirst();
+        if (victim != null) {
+            accessOrder.remove(victim);
+        }
+        return victim;
+    }
+}
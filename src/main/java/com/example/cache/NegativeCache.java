@@ -0,0 +1,133 @@
+package com.example.cache;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of city names the Geocoding API did not find, keyed by normalized city name.
+ *
+ * <p>Used internally by {@link com.example.WeatherSdk} so that repeated lookups of
+ * misspelled or made-up names fail without a request. Names are kept in two tiers:</p>
+ * <ul>
+ *   <li>an exact cache with a short TTL, so a city added to the provider's database
+ *       is found again soon;</li>
+ *   <li>optionally, a compact {@link BloomFilter} that remembers names for {@code filterRetention} to
+ *       2 × {@code filterRetention}. It is organised as two generations, and the older
+ *       generation is dropped each retention period. The filter has a
+ *       {@value #FALSE_POSITIVE_RATE} false positive rate at {@code filterCapacity} names,
+ *       so a name that was never looked up is rarely reported as unknown. Callers should
+ *       consult it only for names that are not cached as valid.</li>
+ * </ul>
+ *
+ * @author Weather SDK Team
+ * @see com.example.WeatherSdk
+ */
+public class NegativeCache {
+    /** Default maximum number of names in the exact cache. */
+    public static final int DEFAULT_CAPACITY = 10_000;
+    /** Default time a name stays in the exact cache. */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+    /**
+     * Default number of names the Bloom filter is sized for: 0, so the filter is disabled and
+     * a name is rejected only while it is in the exact cache.
+     */
+    public static final int DEFAULT_FILTER_CAPACITY = 0;
+    /** Default time after which the Bloom filter starts forgetting a name. */
+    public static final Duration DEFAULT_FILTER_RETENTION = Duration.ofDays(1);
+    static final double FALSE_POSITIVE_RATE = 0.001;
+
+    private final BoundedCache<String, Boolean> recent;
+    private final int filterCapacity;
+    private final long filterRetentionNanos;
+    private final LongSupplier ticker;
+    private volatile BloomFilter currentFilter; // null = filter disabled
+    private volatile BloomFilter previousFilter;
+    private volatile long filterRotatedAt;
+
+    /**
+     * Creates a negative cache.
+     *
+     * @param capacity maximum number of names in the exact cache, must be positive
+     * @param ttl time a name stays in the exact cache, must be positive
+     * @param filterCapacity number of names the Bloom filter is sized for; 0 disables it
+     * @param filterRetention time after which the Bloom filter starts forgetting a name, must be positive
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public NegativeCache(long capacity, Duration ttl, int filterCapacity, Duration filterRetention) {
+        this(capacity, ttl, filterCapacity, filterRetention, System::nanoTime);
+    }
+
+    NegativeCache(long capacity, Duration ttl, int filterCapacity, Duration filterRetention, LongSupplier ticker) {
+        if (filterCapacity < 0) {
+            throw new IllegalArgumentException("filterCapacity must not be negative: " + filterCapacity);
+        }
+        if (filterRetention.isNegative() || filterRetention.isZero()) {
+            throw new IllegalArgumentException("filterRetention must be positive: " + filterRetention);
+        }
+        this.recent = new BoundedCache<>(capacity, ttl, ticker);
+        this.filterCapacity = filterCapacity;
+        this.filterRetentionNanos = filterRetention.toNanos();
+        this.ticker = ticker;
+        if (filterCapacity > 0) {
+            this.currentFilter = new BloomFilter(filterCapacity, FALSE_POSITIVE_RATE);
+            this.previousFilter = new BloomFilter(filterCapacity, FALSE_POSITIVE_RATE);
+            this.filterRotatedAt = ticker.getAsLong();
+        }
+    }
+
+    /**
+     * Checks whether a name was recently reported as not found.
+     *
+     * @param normalizedCityName trimmed, lower-case city name
+     * @return true if the name is in the exact cache or (probably) in the Bloom filter
+     */
+    public boolean isUnknown(String normalizedCityName) {
+        if (recent.get(normalizedCityName) != null) {
+            return true;
+        }
+        if (currentFilter == null) {
+            return false;
+        }
+        rotateIfDue();
+        return currentFilter.mightContain(normalizedCityName) || previousFilter.mightContain(normalizedCityName);
+    }
+
+    /**
+     * Remembers that a name was not found.
+     *
+     * @param normalizedCityName trimmed, lower-case city name
+     */
+    public void markUnknown(String normalizedCityName) {
+        recent.put(normalizedCityName, Boolean.TRUE);
+        if (currentFilter != null) {
+            rotateIfDue();
+            currentFilter.put(normalizedCityName);
+        }
+    }
+
+    /**
+     * Gets the number of names in the exact cache.
+     *
+     * @return number of recently not found names
+     */
+    public int size() {
+        return recent.size();
+    }
+
+    /**
+     * Drops the older filter generation once per retention period.
+     */
+    private void rotateIfDue() {
+        if (ticker.getAsLong() - filterRotatedAt < filterRetentionNanos) {
+            return;
+        }
+        synchronized (this) {
+            long now = ticker.getAsLong();
+            if (now - filterRotatedAt >= filterRetentionNanos) {
+                previousFilter = currentFilter;
+                currentFilter = new BloomFilter(filterCapacity, FALSE_POSITIVE_RATE);
+                filterRotatedAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lossy, bounded multi-producer / single-consumer ring buffer for recording reads.
+ *
+ * <p>Used internally by {@link BoundedCache} to record cache hits without taking a lock.
+ * Producers claim a slot with a single CAS; when the buffer is full the read is rejected
+ * and the caller is expected to drain it. Losing a few reads only makes the access order
+ * slightly less precise, it never affects correctness.</p>
+ *
+ * <p>{@link #drainTo(Consumer)} must only be called by one thread at a time
+ * (the owner of the cache's eviction lock).</p>
+ *
+ * @param <E> type of buffered elements
+ */
+final class ReadBuffer<E> {
+    static final int SIZE = 16;
+    private static final int MASK = SIZE - 1;
+
+    /** The element was recorded. */
+    static final int SUCCESS = 0;
+    /** The slot was claimed by another producer, the element was dropped. */
+    static final int FAILED = 1;
+    /** The buffer is full and should be drained. */
+    static final int FULL = 2;
+
+    private final AtomicLong writeCounter = new AtomicLong();
+    private final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<>(SIZE);
+    private volatile long readCounter;
+
+    /**
+     * Tries to record an element.
+     *
+     * @param e element to record
+     * @return {@link #SUCCESS}, {@link #FAILED} or {@link #FULL}
+     */
+    int offer(E e) {
+        long head = readCounter;
+        long tail = writeCounter.get();
+        if (tail - head >= SIZE) {
+            return FULL;
+        }
+        if (writeCounter.compareAndSet(tail, tail + 1)) {
+            buffer.lazySet((int) (tail & MASK), e);
+            return SUCCESS;
+        }
+        return FAILED;
+    }
+
+    /**
+     * Hands all published elements to the consumer and frees their slots.
+     *
+     * @param consumer receiver of the buffered elements
+     */
+    void drainTo(Consumer<E> consumer) {
+        long head = readCounter;
+        long tail = writeCounter.get();
+        while (head < tail) {
+            int index = (int) (head & MASK);
+            E e = buffer.get(index);
+            if (e == null) {
+                // Slot claimed but not yet published; pick it up on the next drain
+                break;
+            }
+            buffer.lazySet(index, null);
+            consumer.accept(e);
+            head++;
+        }
+        readCounter = head;
+    }
+}
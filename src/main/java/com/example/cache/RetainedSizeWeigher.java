@@ -0,0 +1,89 @@
+package com.example.cache;
+
+import com.example.model.WeatherData;
+
+/**
+ * {@link Weigher#retainedBytes()} weigher.
+ *
+ * <p>Sizes are those of a 64-bit JVM with compressed references: 12-byte object headers,
+ * 4-byte references and objects padded to 8 bytes. Strings are assumed to take two bytes
+ * per character unless all characters fit into Latin-1. Boxed numbers are counted even
+ * though small ones may be shared, so the estimate errs on the high side.</p>
+ */
+final class RetainedSizeWeigher implements Weigher<Object, WeatherCacheEntry> {
+    static final RetainedSizeWeigher INSTANCE = new RetainedSizeWeigher();
+
+    // BoundedCache.Node plus the ConcurrentHashMap node and table slot pointing to it
+    private static final int CACHE_OVERHEAD = 64 + 32 + 4;
+    private static final int ENTRY = 48; // WeatherCacheEntry itself
+    private static final int INSTANT = 24;
+    private static final int WEATHER_DATA = 48;
+    private static final int WEATHER = 24;
+    private static final int MAIN_DATA = 24;
+    private static final int WIND = 16;
+    private static final int SYS = 24;
+    private static final int BOXED = 16; // Integer, Long or Double
+    private static final int STRING = 24;
+    private static final int ARRAY_HEADER = 16;
+
+    private RetainedSizeWeigher() {
+    }
+
+    @Override
+    public int weigh(Object key, WeatherCacheEntry entry) {
+        long size = CACHE_OVERHEAD + ENTRY + (entry.getExpiresAt() != null ? 2 * INSTANT : INSTANT);
+        if (key instanceof String) {
+            size += sizeOf((String) key);
+        }
+        size += sizeOf(entry.getCityName()) + sizeOf(entry.getWeatherData());
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    static long sizeOf(WeatherData data) {
+        if (data == null) {
+            return 0;
+        }
+        long size = WEATHER_DATA + sizeOf(data.getName());
+        WeatherData.Weather[] weather = data.getWeather();
+        if (weather != null) {
+            size += align(ARRAY_HEADER + 4L * weather.length);
+            for (WeatherData.Weather w : weather) {
+                if (w != null) {
+                    size += WEATHER + sizeOf(w.getMain()) + sizeOf(w.getDescription());
+                }
+            }
+        }
+        WeatherData.MainData temperature = data.getTemperature();
+        if (temperature != null) {
+            size += MAIN_DATA + sizeOf(temperature.getTemp()) + sizeOf(temperature.getFeelsLike());
+        }
+        WeatherData.Wind wind = data.getWind();
+        if (wind != null) {
+            size += WIND + sizeOf(wind.getSpeed());
+        }
+        WeatherData.Sys sys = data.getSys();
+        if (sys != null) {
+            size += SYS + sizeOf(sys.getSunrise()) + sizeOf(sys.getSunset());
+        }
+        return size + sizeOf(data.getVisibility()) + sizeOf(data.getDatetime()) + sizeOf(data.getTimezone());
+    }
+
+    static long sizeOf(String s) {
+        if (s == null) {
+            return 0;
+        }
+        boolean latin1 = true;
+        for (int i = 0; i < s.length() && latin1; i++) {
+            latin1 = s.charAt(i) <= 0xFF;
+        }
+        return STRING + align(ARRAY_HEADER + (latin1 ? 1L : 2L) * s.length());
+    }
+
+    private static long sizeOf(Number boxed) {
+        return boxed != null ? BOXED : 0;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates cache statistics for {@link CacheStats} snapshots.
+ *
+ * <p>All counters are {@link LongAdder}s, which spread concurrent increments over
+ * per-thread cells, so recording a hit does not contend between threads.</p>
+ *
+ * @author Weather SDK Team
+ */
+public final class StatsCounter {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder[] loadLatency = new LongAdder[CacheStats.LATENCY_BUCKETS];
+
+    /**
+     * Creates a counter with all counts at zero.
+     */
+    public StatsCounter() {
+        for (int i = 0; i < loadLatency.length; i++) {
+            loadLatency[i] = new LongAdder();
+        }
+    }
+
+    /** Records a lookup answered from the cache. */
+    public void recordHit() {
+        hits.increment();
+    }
+
+    /** Records a lookup that had to wait for a load. */
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    /** Records a lookup that found an entry older than the TTL. */
+    public void recordExpiration() {
+        expirations.increment();
+    }
+
+    /**
+     * Records a successful load.
+     *
+     * @param loadTimeNanos time the load took
+     */
+    public void recordLoadSuccess(long loadTimeNanos) {
+        loadSuccesses.increment();
+        recordLoadTime(loadTimeNanos);
+    }
+
+    /**
+     * Records a failed load.
+     *
+     * @param loadTimeNanos time until the load failed
+     */
+    public void recordLoadFailure(long loadTimeNanos) {
+        loadFailures.increment();
+        recordLoadTime(loadTimeNanos);
+    }
+
+    /**
+     * Takes a snapshot of the counts. Counts recorded concurrently may or may not be included.
+     *
+     * @param evictionCount evictions reported by the cache itself
+     * @return statistics snapshot
+     */
+    public CacheStats snapshot(long evictionCount) {
+        long[] histogram = new long[loadLatency.length];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = loadLatency[i].sum();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), expirations.sum(), evictionCount,
+                loadSuccesses.sum(), loadFailures.sum(), totalLoadTime.sum(), histogram);
+    }
+
+    private void recordLoadTime(long loadTimeNanos) {
+        long nanos = Math.max(0, loadTimeNanos);
+        totalLoadTime.add(nanos);
+        loadLatency[CacheStats.bucketOf(nanos)].increment();
+    }
+}
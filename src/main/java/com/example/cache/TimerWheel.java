@@ -0,0 +1,153 @@
+package com.example.cache;
+
+import com.example.cache.BoundedCache.Node;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timer wheel that finds expired {@link BoundedCache} entries without
+ * scanning the cache.
+ *
+ * <p>Each entry is linked into a bucket of the coarsest wheel whose resolution still
+ * separates its deadline from the current time: wheels of 64 buckets of ~1 second,
+ * 64 of ~1 minute, 32 of ~1 hour, 4 of ~20 hours and one overflow bucket. Scheduling and
+ * descheduling are O(1). {@link #advance(long, Consumer)} visits only the buckets whose time has
+ * passed; entries found there expire, or move to a finer wheel if their deadline is
+ * still ahead. Each entry moves down at most once per wheel, so expiration is amortized
+ * O(1) per entry.</p>
+ *
+ * <p>Times are {@link System#nanoTime()}-style ticker values. Not thread-safe; the cache
+ * calls it under its eviction lock.</p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class TimerWheel<K, V> {
+    static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    static final long[] SPANS = {
+            1L << 30, // 1.07 s
+            1L << 36, // 1.14 min
+            1L << 42, // 1.22 h
+            1L << 46, // 19.5 h
+            1L << 50, // 13 d
+            1L << 50, // 13 d
+    };
+    private static final long[] SHIFTS = {30, 36, 42, 46, 50};
+
+    private final Node<K, V>[][] wheel;
+    private long nanos;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param now current ticker value
+     */
+    @SuppressWarnings("unchecked")
+    TimerWheel(long now) {
+        this.nanos = now;
+        this.wheel = (Node<K, V>[][]) new Node<?, ?>[BUCKETS.length][];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = (Node<K, V>[]) new Node<?, ?>[BUCKETS[i]];
+            for (int j = 0; j < wheel[i].length; j++) {
+                Node<K, V> sentinel = new Node<>(null, null, 0);
+                sentinel.prevInTimer = sentinel;
+                sentinel.nextInTimer = sentinel;
+                wheel[i][j] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Links the entry into the bucket for its deadline.
+     *
+     * @param node entry with an expiration time
+     */
+    void schedule(Node<K, V> node) {
+        Node<K, V> sentinel = findBucket(node.getExpirationTime());
+        Node<K, V> last = sentinel.prevInTimer;
+        node.prevInTimer = last;
+        node.nextInTimer = sentinel;
+        last.nextInTimer = node;
+        sentinel.prevInTimer = node;
+    }
+
+    /**
+     * Moves the entry to the bucket for its new deadline.
+     *
+     * @param node scheduled or unscheduled entry with an expiration time
+     */
+    void reschedule(Node<K, V> node) {
+        deschedule(node);
+        schedule(node);
+    }
+
+    /**
+     * Unlinks the entry if it is scheduled.
+     *
+     * @param node entry
+     */
+    void deschedule(Node<K, V> node) {
+        if (node.nextInTimer != null) {
+            node.nextInTimer.prevInTimer = node.prevInTimer;
+            node.prevInTimer.nextInTimer = node.nextInTimer;
+            node.nextInTimer = null;
+            node.prevInTimer = null;
+        }
+    }
+
+    /**
+     * Advances the wheel to the current time, passing every entry whose deadline has
+     * passed to {@code expired} after unlinking it.
+     *
+     * @param now current ticker value
+     * @param expired receives expired entries
+     */
+    void advance(long now, Consumer<Node<K, V>> expired) {
+        long previous = nanos;
+        nanos = now;
+        for (int i = 0; i < SHIFTS.length; i++) {
+            long previousTicks = previous >>> SHIFTS[i];
+            long currentTicks = now >>> SHIFTS[i];
+            if (currentTicks - previousTicks <= 0) {
+                break;
+            }
+            expire(i, previousTicks, currentTicks - previousTicks, expired);
+        }
+    }
+
+    private void expire(int index, long previousTicks, long delta, Consumer<Node<K, V>> expired) {
+        Node<K, V>[] buckets = wheel[index];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(delta + 1, buckets.length);
+        int start = (int) (previousTicks & mask);
+        for (int i = 0; i < steps; i++) {
+            Node<K, V> sentinel = buckets[(start + i) & mask];
+            Node<K, V> node = sentinel.nextInTimer;
+            sentinel.prevInTimer = sentinel;
+            sentinel.nextInTimer = sentinel;
+            while (node != sentinel) {
+                Node<K, V> next = node.nextInTimer;
+                node.prevInTimer = null;
+                node.nextInTimer = null;
+                if (nanos - node.getExpirationTime() >= 0) {
+                    expired.accept(node);
+                } else {
+                    schedule(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private Node<K, V> findBucket(long time) {
+        long duration = time - nanos;
+        int length = wheel.length - 1;
+        for (int i = 0; i < length; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = time >>> SHIFTS[i];
+                return wheel[i][(int) (ticks & (wheel[i].length - 1))];
+            }
+        }
+        return wheel[length][0];
+    }
+}
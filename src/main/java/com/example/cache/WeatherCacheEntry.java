@@ -2,20 +2,27 @@ package com.example.cache;
 
 import com.example.model.WeatherData;
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Cache entry for storing weather data with a timestamp.
  *
  * <p>Used internally by {@link com.example.WeatherSdk} for caching weather data.
- * Each entry contains weather data and the time it was received, allowing
- * determination of data freshness.</p>
+ * Each entry contains weather data, the time it was received and, optionally, the time
+ * its {@link ExpiryPolicy} lets it expire, allowing determination of data freshness.
+ * Both are also kept as {@link System#nanoTime()} values, so that freshness checks on
+ * cache hits neither allocate nor depend on wall clock adjustments.</p>
  *
  * @author Weather SDK Team
  * @see com.example.WeatherSdk
  */
 public class WeatherCacheEntry {
+    private final String cityName;
     private final WeatherData weatherData;
     private final Instant timestamp;
+    private final Instant expiresAt; // null = expires after the cache TTL
+    private final long receivedNanos; // System.nanoTime() at the timestamp
+    private final long expiresAtNanos; // System.nanoTime() at expiresAt, if set
     
     /**
      * Creates a new cache entry.
@@ -24,8 +31,48 @@ public class WeatherCacheEntry {
      * @param timestamp time the data was received
      */
     public WeatherCacheEntry(WeatherData weatherData, Instant timestamp) {
+        this(null, weatherData, timestamp);
+    }
+
+    /**
+     * Creates a new cache entry for a city requested by name.
+     *
+     * @param cityName city name as originally requested by the client
+     * @param weatherData weather data
+     * @param timestamp time the data was received
+     */
+    public WeatherCacheEntry(String cityName, WeatherData weatherData, Instant timestamp) {
+        this(cityName, weatherData, timestamp, null);
+    }
+
+    /**
+     * Creates a new cache entry with an expiration time chosen by an {@link ExpiryPolicy}.
+     *
+     * @param cityName city name as originally requested by the client, or null
+     * @param weatherData weather data
+     * @param timestamp time the data was received
+     * @param expiresAt time the data expires, or null to use the cache TTL
+     */
+    public WeatherCacheEntry(String cityName, WeatherData weatherData, Instant timestamp, Instant expiresAt) {
+        this.cityName = cityName;
         this.weatherData = weatherData;
         this.timestamp = timestamp;
+        this.expiresAt = expiresAt;
+        long nowNanos = System.nanoTime();
+        long nowMillis = System.currentTimeMillis();
+        this.receivedNanos = nowNanos - TimeUnit.MILLISECONDS.toNanos(nowMillis - timestamp.toEpochMilli());
+        this.expiresAtNanos = expiresAt != null
+                ? nowNanos + TimeUnit.MILLISECONDS.toNanos(expiresAt.toEpochMilli() - nowMillis)
+                : 0;
+    }
+
+    /**
+     * Gets the city name as originally requested by the client.
+     *
+     * @return original city name or null if the entry was not created by name
+     */
+    public String getCityName() {
+        return cityName;
     }
     
     /**
@@ -45,6 +92,15 @@ public class WeatherCacheEntry {
     public Instant getTimestamp() {
         return timestamp;
     }
+
+    /**
+     * Gets the time the data expires.
+     *
+     * @return expiration time, or null if the entry expires after the cache TTL
+     */
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
     
     /**
      * Checks if the data is up-to-date (less than TTL seconds old).
@@ -56,7 +112,16 @@ public class WeatherCacheEntry {
      * @return true if the data is up-to-date (less than TTL), false otherwise
      */
     public boolean isUpToDate(long ttlSeconds) {
-        return Instant.now().minusSeconds(ttlSeconds).isBefore(timestamp);
+        return System.nanoTime() - receivedNanos < TimeUnit.SECONDS.toNanos(ttlSeconds);
     }
-}
 
+    /**
+     * Checks if the data has not expired yet.
+     *
+     * @param ttlSeconds cache time-to-live in seconds, used if the entry has no expiration time
+     * @return true if the data is before its expiration time, or younger than the TTL
+     */
+    public boolean isFresh(long ttlSeconds) {
+        return expiresAt != null ? System.nanoTime() - expiresAtNanos < 0 : isUpToDate(ttlSeconds);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.cache;
+
+/**
+ * Computes the weight of a cache entry, e.g. its estimated size in bytes.
+ *
+ * <p>A {@link BoundedCache} created with a maximum weight evicts entries until the sum of
+ * their weights fits into it. The weight is computed once, when the entry is written.
+ * Implementations must be thread-safe.</p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ * @author Weather SDK Team
+ * @see com.example.WeatherSdk.Builder#cacheMaximumWeight(long)
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    /**
+     * Computes the weight of an entry.
+     *
+     * @param key cache key
+     * @param value cached value
+     * @return weight, must not be negative
+     */
+    int weigh(K key, V value);
+
+    /**
+     * Gets a weigher that gives every entry a weight of 1, so that the maximum weight is
+     * a number of entries.
+     *
+     * @param <K> key type
+     * @param <V> value type
+     * @return weigher of constant weight 1
+     */
+    static <K, V> Weigher<K, V> singleton() {
+        return (key, value) -> 1;
+    }
+
+    /**
+     * Gets a weigher that estimates how many bytes of heap a cached weather entry retains,
+     * including its key, its {@link com.example.model.WeatherData} and the cache's own
+     * bookkeeping, so that the maximum weight is a byte budget.
+     *
+     * @return weigher of retained bytes
+     */
+    static Weigher<Object, WeatherCacheEntry> retainedBytes() {
+        return RetainedSizeWeigher.INSTANCE;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.cache;
+
+import com.example.cache.BoundedCache.AccessOrderDeque;
+import com.example.cache.BoundedCache.Node;
+
+/**
+ * {@link EvictionPolicy#W_TINY_LFU} strategy.
+ *
+ * <p>Sizes are measured in entry weights, which are 1 unless the cache has a
+ * {@link Weigher}. New entries enter an LRU window of 1% of the capacity. An entry pushed out of the
+ * full window is admitted to the main region only if the {@link FrequencySketch}
+ * estimates it was accessed more often than the main region's LRU entry; otherwise the
+ * entry itself is evicted. The main region is a segmented LRU: admitted entries start in
+ * the probation segment and move to the protected segment (80% of the main region) on
+ * their next access, and entries dropping out of the protected segment go back to
+ * probation.</p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class WindowTinyLfuStrategy<K, V> implements EvictionStrategy<K, V> {
+    static final byte WINDOW = 1;
+    static final byte PROBATION = 2;
+    static final byte PROTECTED = 3;
+
+    private final long maximum;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final FrequencySketch sketch;
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> protectedSegment = new AccessOrderDeque<>();
+    private long size;
+    private long windowSize;
+    private long protectedSize;
+
+    /**
+     * Creates the strategy.
+     *
+     * @param maximum maximum total weight of the cache
+     * @param expectedSize number of entries the frequency sketch is sized for
+     */
+    WindowTinyLfuStrategy(long maximum, long expectedSize) {
+        this.maximum = maximum;
+        this.windowMaximum = Math.max(1, maximum / 100);
+        this.protectedMaximum = (maximum - windowMaximum) * 8 / 10;
+        this.sketch = new FrequencySketch(expectedSize);
+    }
+
+    @Override
+    public void onAdd(Node<K, V> node) {
+        sketch.increment(node.key);
+        link(window, node, WINDOW);
+        // Until the cache is full, entries leaving the window need not compete for a place
+        while (windowSize > windowMaximum && size <= maximum) {
+            Node<K, V> first = window.peekFirst();
+            unlink(first);
+            link(probation, first, PROBATION);
+        }
+    }
+
+    @Override
+    public void onAccess(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                sketch.increment(node.key);
+                window.moveToBack(node);
+                break;
+            case PROBATION:
+                sketch.increment(node.key);
+                unlink(node);
+                link(protectedSegment, node, PROTECTED);
+                while (protectedSize > protectedMaximum) {
+                    Node<K, V> demoted = protectedSegment.peekFirst();
+                    unlink(demoted);
+                    link(probation, demoted, PROBATION);
+                }
+                break;
+            case PROTECTED:
+                sketch.increment(node.key);
+                protectedSegment.moveToBack(node);
+                break;
+            default:
+                // Removed since the read was buffered
+        }
+    }
+
+    @Override
+    public void onUpdate(Node<K, V> node, int previousWeight) {
+        int delta = node.weight - previousWeight;
+        if (node.queue != 0) {
+            size += delta;
+        }
+        if (node.queue == WINDOW) {
+            windowSize += delta;
+        } else if (node.queue == PROTECTED) {
+            protectedSize += delta;
+        }
+        onAccess(node);
+    }
+
+    @Override
+    public void onRemove(Node<K, V> node) {
+        unlink(node);
+    }
+
+    @Override
+    public Node<K, V> evict() {
+        Node<K, V> candidate = windowSize > windowMaximum ? window.peekFirst() : null;
+        Node<K, V> victim = probation.peekFirst();
+        if (victim == null) {
+            victim = protectedSegment.peekFirst();
+        }
+        if (candidate == null) {
+            if (victim == null) {
+                victim = window.peekFirst();
+            }
+        } else if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            unlink(candidate);
+            link(probation, candidate, PROBATION);
+        } else {
+            victim = candidate;
+        }
+        if (victim != null) {
+            unlink(victim);
+        }
+        return victim;
+    }
+
+    private void link(AccessOrderDeque<K, V> queue, Node<K, V> node, byte queueType) {
+        queue.add(node);
+        node.queue = queueType;
+        size += node.weight;
+        if (queueType == WINDOW) {
+            windowSize += node.weight;
+        } else if (queueType == PROTECTED) {
+            protectedSize += node.weight;
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.remove(node);
+                windowSize -= node.weight;
+                break;
+            case PROBATION:
+                probation.remove(node);
+                break;
+            case PROTECTED:
+                protectedSegment.remove(node);
+                protectedSize -= node.weight;
+                break;
+            default:
+                return;
+        }
+        node.queue = 0;
+        size -= node.weight;
+    }
+}
@@ -3,7 +3,7 @@ package com.example.config;
 /**
  * SDK operation modes for weather data updates.
  * 
- * <p>The SDK supports two modes that determine the strategy
+ * <p>The SDK supports three modes that determine the strategy
  * for updating cached weather data:</p>
  * 
  * @author Weather SDK Team
@@ -33,6 +33,21 @@ public enum SdkMode {
      * <p><b>Important:</b> In POLLING mode, you must call {@link com.example.WeatherSdk#shutdown()}
      * or {@link com.example.WeatherSdk#delete(String)} to properly terminate background update threads.</p>
      */
-    POLLING
+    POLLING,
+    
+    /**
+     * STALE_WHILE_REVALIDATE mode - serves expired data immediately and refreshes it in the background.
+     * 
+     * <p>Works like ON_DEMAND while data is valid. Once data is older than the cache TTL
+     * but younger than the hard TTL (1 hour by default), the cached data is returned at once
+     * and a single background request refreshes it. Only data older than the hard TTL
+     * makes the client wait for the API.</p>
+     * 
+     * <p><b>Recommended:</b> when tail latency matters more than minute-level freshness.</p>
+     * 
+     * <p><b>Important:</b> as in POLLING mode, call {@link com.example.WeatherSdk#shutdown()}
+     * or {@link com.example.WeatherSdk#delete(String)} to terminate background refresh threads.</p>
+     */
+    STALE_WHILE_REVALIDATE
 }
 
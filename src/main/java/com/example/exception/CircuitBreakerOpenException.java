@@ -0,0 +1,13 @@
+package com.example.exception;
+
+/**
+ * Thrown when a request is not sent because the circuit breaker in front of the
+ * OpenWeather API is open after repeated failures.
+ */
+public class CircuitBreakerOpenException extends WeatherApiException {
+    private static final long serialVersionUID = 1L;
+
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.exception;
+
+/**
+ * Thrown when the OpenWeather Geocoding API knows no city with the requested name.
+ */
+public class CityNotFoundException extends WeatherApiException {
+    private static final long serialVersionUID = 1L;
+
+    public CityNotFoundException(String message) {
+        super(message);
+    }
+}
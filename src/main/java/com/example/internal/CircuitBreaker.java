@@ -0,0 +1,185 @@
+package com.example.internal;
+
+import com.example.model.CircuitBreakerState;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker for requests to the OpenWeather API.
+ *
+ * <p>While {@link CircuitBreakerState#CLOSED CLOSED}, the outcomes of the last
+ * {@code windowSize} requests are kept. Once at least half the window has been recorded
+ * and the share of failures reaches {@code failureRateThreshold}, the breaker opens and
+ * rejects requests for {@code openDuration}. After that it lets up to
+ * {@value #HALF_OPEN_PROBES} probe requests through: if they all succeed it closes with
+ * an empty window, and the first failure opens it again.</p>
+ *
+ * <p>Each admitted request receives a permit that must be passed back with its outcome.
+ * Outcomes of requests admitted before the last state change are ignored.</p>
+ *
+ * <p><b>Internal class:</b> This class is intended for internal SDK use
+ * and should not be used directly by library clients.</p>
+ */
+public final class CircuitBreaker {
+    /** Returned by {@link #tryAcquire()} when the request must not be sent. */
+    public static final long REJECTED = -1;
+    static final int HALF_OPEN_PROBES = 3;
+
+    private final double failureRateThreshold;
+    private final boolean[] window; // true = failure
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final LongSupplier ticker;
+
+    private CircuitBreakerState state = CircuitBreakerState.CLOSED;
+    private long generation; // incremented on every state change
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    /**
+     * Creates a closed circuit breaker.
+     *
+     * @param failureRateThreshold share of failed requests that opens the breaker, in (0, 1]
+     * @param windowSize number of recent requests the failure rate is computed over, must be positive
+     * @param openDuration time requests are rejected before probing, must be positive
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public CircuitBreaker(double failureRateThreshold, int windowSize, Duration openDuration) {
+        this(failureRateThreshold, windowSize, openDuration, System::nanoTime);
+    }
+
+    CircuitBreaker(double failureRateThreshold, int windowSize, Duration openDuration, LongSupplier ticker) {
+        if (!(failureRateThreshold > 0 && failureRateThreshold <= 1)) {
+            throw new IllegalArgumentException("failureRateThreshold must be in (0, 1]: " + failureRateThreshold);
+        }
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("windowSize must be positive: " + windowSize);
+        }
+        if (openDuration.isNegative() || openDuration.isZero()) {
+            throw new IllegalArgumentException("openDuration must be positive: " + openDuration);
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.max(1, windowSize / 2);
+        this.openDurationNanos = openDuration.toNanos();
+        this.ticker = ticker;
+    }
+
+    /**
+     * Asks permission to send a request.
+     *
+     * @return permit to pass to {@link #onSuccess(long)}, {@link #onFailure(long)} or
+     *         {@link #onIgnored(long)}, or {@link #REJECTED} if the breaker is open
+     */
+    public synchronized long tryAcquire() {
+        if (state == CircuitBreakerState.OPEN) {
+            if (ticker.getAsLong() - openedAt < openDurationNanos) {
+                return REJECTED;
+            }
+            transitionTo(CircuitBreakerState.HALF_OPEN);
+        }
+        if (state == CircuitBreakerState.HALF_OPEN) {
+            if (probesStarted >= HALF_OPEN_PROBES) {
+                return REJECTED;
+            }
+            probesStarted++;
+        }
+        return generation;
+    }
+
+    /**
+     * Records a request that reached the API and got a non-server-error response.
+     *
+     * @param permit permit returned by {@link #tryAcquire()}
+     */
+    public synchronized void onSuccess(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == CircuitBreakerState.HALF_OPEN) {
+            if (++probesSucceeded >= HALF_OPEN_PROBES) {
+                transitionTo(CircuitBreakerState.CLOSED);
+            }
+        } else {
+            record(false);
+        }
+    }
+
+    /**
+     * Records a request that failed with an I/O error or a server error.
+     *
+     * @param permit permit returned by {@link #tryAcquire()}
+     */
+    public synchronized void onFailure(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == CircuitBreakerState.HALF_OPEN) {
+            transitionTo(CircuitBreakerState.OPEN);
+            return;
+        }
+        record(true);
+        if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+            transitionTo(CircuitBreakerState.OPEN);
+        }
+    }
+
+    /**
+     * Returns the permit of a request that was not sent or whose outcome says nothing
+     * about the API's health.
+     *
+     * @param permit permit returned by {@link #tryAcquire()}
+     */
+    public synchronized void onIgnored(long permit) {
+        if (permit == generation && state == CircuitBreakerState.HALF_OPEN) {
+            probesStarted--;
+        }
+    }
+
+    /**
+     * Gets the current state.
+     *
+     * @return current state; an open breaker whose open period has elapsed reports
+     *         {@link CircuitBreakerState#HALF_OPEN}
+     */
+    public synchronized CircuitBreakerState getState() {
+        if (state == CircuitBreakerState.OPEN && ticker.getAsLong() - openedAt >= openDurationNanos) {
+            return CircuitBreakerState.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void transitionTo(CircuitBreakerState newState) {
+        state = newState;
+        generation++;
+        probesStarted = 0;
+        probesSucceeded = 0;
+        if (newState == CircuitBreakerState.OPEN) {
+            openedAt = ticker.getAsLong();
+        } else if (newState == CircuitBreakerState.CLOSED) {
+            recorded = 0;
+            next = 0;
+            failures = 0;
+        }
+    }
+}
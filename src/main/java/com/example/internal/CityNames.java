@@ -0,0 +1,121 @@
+package com.example.internal;
+
+/**
+ * Normalization of city names into cache keys.
+ *
+ * <p>A key is the name without leading and trailing whitespace, lowercased one character
+ * at a time with {@link Character#toLowerCase(char)}, so it does not depend on the default
+ * locale. {@link #lookupKey(String)} finds the entry for a name in a map keyed by
+ * normalized names without creating the normalized string, so cache hits do not
+ * allocate.</p>
+ *
+ * <p><b>Internal class:</b> This class is intended for internal SDK use
+ * and should not be used directly by library clients.</p>
+ */
+public final class CityNames {
+    private static final ThreadLocal<LookupKey> LOOKUP_KEYS = ThreadLocal.withInitial(LookupKey::new);
+
+    private CityNames() {
+    }
+
+    /**
+     * Checks whether a city name is missing.
+     *
+     * @param cityName city name as given
+     * @return true if the name is null, empty or only whitespace
+     */
+    public static boolean isBlank(String cityName) {
+        return cityName == null || start(cityName) == cityName.length();
+    }
+
+    /**
+     * Creates the cache key for a city name.
+     *
+     * @param cityName non-blank city name as given
+     * @return trimmed, lowercased name
+     */
+    public static String normalize(String cityName) {
+        int start = start(cityName);
+        int end = end(cityName, start);
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = Character.toLowerCase(cityName.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Gets a key equal to {@code normalize(cityName)} for lookups in a
+     * {@link java.util.concurrent.ConcurrentHashMap} keyed by normalized names, which
+     * compares keys with {@code lookupKey.equals(storedKey)}.
+     *
+     * <p>The key is reused by the calling thread: it is valid only until the next call on
+     * that thread and must not be stored.</p>
+     *
+     * @param cityName non-blank city name as given
+     * @return key for a single lookup
+     */
+    public static Object lookupKey(String cityName) {
+        return LOOKUP_KEYS.get().reset(cityName);
+    }
+
+    private static int start(String cityName) {
+        int start = 0;
+        while (start < cityName.length() && cityName.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int end(String cityName, int start) {
+        int end = cityName.length();
+        while (end > start && cityName.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * View of a city name that hashes and compares like its normalized form.
+     */
+    private static final class LookupKey {
+        private String cityName;
+        private int start;
+        private int end;
+        private int hash;
+
+        LookupKey reset(String cityName) {
+            this.cityName = cityName;
+            this.start = start(cityName);
+            this.end = end(cityName, start);
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + Character.toLowerCase(cityName.charAt(i));
+            }
+            this.hash = h; // same as String.hashCode() of the normalized name
+            return this;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof String)) {
+                return false;
+            }
+            String key = (String) o;
+            if (key.length() != end - start) {
+                return false;
+            }
+            for (int i = 0; i < key.length(); i++) {
+                if (key.charAt(i) != Character.toLowerCase(cityName.charAt(start + i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
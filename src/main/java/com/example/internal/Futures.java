@@ -0,0 +1,96 @@
+package com.example.internal;
+
+import com.example.exception.WeatherApiException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Helpers for bridging {@link CompletableFuture}s and the SDK's checked exceptions.
+ *
+ * <p>Asynchronous SDK methods complete exceptionally with {@link WeatherApiException};
+ * these helpers unwrap it again for blocking callers.</p>
+ *
+ * <p><b>Internal class:</b> This class is intended for internal SDK use
+ * and should not be used directly by library clients.</p>
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Waits for the future and rethrows its failure as the original exception.
+     *
+     * @param future future to wait for
+     * @param <T> result type
+     * @return result of the future
+     * @throws WeatherApiException if the future failed with it, failed with a checked
+     *                             exception or the wait was interrupted
+     */
+    public static <T> T await(CompletableFuture<T> future) throws WeatherApiException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WeatherApiException("Request was interrupted", e);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    /**
+     * Strips {@link CompletionException} and {@link ExecutionException} wrappers.
+     *
+     * @param error failure of a future stage
+     * @return the underlying cause
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    /**
+     * Wraps an exception so that it can be thrown from a future stage.
+     *
+     * @param error exception to propagate
+     * @return CompletionException carrying the exception
+     */
+    public static CompletionException wrap(Throwable error) {
+        return error instanceof CompletionException
+                ? (CompletionException) error : new CompletionException(error);
+    }
+
+    /**
+     * Converts the failure of a future into a {@link WeatherApiException}.
+     *
+     * @param error failure of a future stage
+     * @return the underlying WeatherApiException, or a new one wrapping any other cause
+     */
+    public static WeatherApiException toApiException(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof WeatherApiException) {
+            return (WeatherApiException) cause;
+        }
+        return new WeatherApiException("Unexpected error while loading weather: " + cause, cause);
+    }
+
+    private static WeatherApiException rethrow(Throwable error) throws WeatherApiException {
+        Throwable cause = unwrap(error);
+        if (cause instanceof WeatherApiException) {
+            throw (WeatherApiException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return toApiException(cause);
+    }
+}
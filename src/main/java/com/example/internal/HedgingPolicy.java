@@ -0,0 +1,105 @@
+package com.example.internal;
+
+import java.util.Arrays;
+
+/**
+ * Hedging policy for weather requests.
+ *
+ * <p>Keeps the latencies of the last {@value #SAMPLE_SIZE} requests. Once
+ * {@value #MIN_SAMPLES} are known, a request that has not answered within the
+ * configured percentile of them is sent a second time, and the first response wins.</p>
+ *
+ * <p>Hedges are paid for from a budget: every primary request adds {@code budget}
+ * credits (e.g. 0.05 for at most 5% extra requests), a hedge costs one credit, and
+ * unused credits are capped at {@value #MAX_CREDITS}, so a burst of slow responses
+ * cannot double the request volume.</p>
+ *
+ * <p><b>Internal class:</b> This class is intended for internal SDK use
+ * and should not be used directly by library clients.</p>
+ */
+public final class HedgingPolicy {
+    static final int SAMPLE_SIZE = 256;
+    static final int MIN_SAMPLES = 20;
+    static final double MAX_CREDITS = 10;
+    private static final int RECOMPUTE_INTERVAL = 16;
+
+    private final double percentile;
+    private final double budget;
+    private final long[] samples = new long[SAMPLE_SIZE];
+    private int sampleCount;
+    private int next;
+    private int recordedSinceRecompute;
+    private long hedgeDelayNanos = -1;
+    private double credits;
+
+    /**
+     * Creates a hedging policy.
+     *
+     * @param percentile latency percentile after which a request is hedged, in (0, 100)
+     * @param budget extra requests allowed per primary request, in (0, 1]
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public HedgingPolicy(double percentile, double budget) {
+        if (!(percentile > 0 && percentile < 100)) {
+            throw new IllegalArgumentException("percentile must be in (0, 100): " + percentile);
+        }
+        if (!(budget > 0 && budget <= 1)) {
+            throw new IllegalArgumentException("budget must be in (0, 1]: " + budget);
+        }
+        this.percentile = percentile;
+        this.budget = budget;
+    }
+
+    /**
+     * Registers a primary request and returns the time after which it should be hedged.
+     *
+     * @return delay in nanoseconds, or -1 if too few latencies are known yet
+     */
+    public synchronized long onRequest() {
+        credits = Math.min(MAX_CREDITS, credits + budget);
+        return hedgeDelayNanos;
+    }
+
+    /**
+     * Takes a credit for a hedge request.
+     *
+     * @return true if the budget allows the hedge
+     */
+    public synchronized boolean tryAcquireHedge() {
+        if (credits < 1) {
+            return false;
+        }
+        credits -= 1;
+        return true;
+    }
+
+    /**
+     * Records the latency of a completed request.
+     *
+     * @param latencyNanos time from sending the request to receiving the response
+     */
+    public synchronized void recordLatency(long latencyNanos) {
+        samples[next] = latencyNanos;
+        next = (next + 1) % SAMPLE_SIZE;
+        if (sampleCount < SAMPLE_SIZE) {
+            sampleCount++;
+        }
+        // Sorting 256 longs is cheap, but not on every response
+        if (sampleCount >= MIN_SAMPLES && (++recordedSinceRecompute >= RECOMPUTE_INTERVAL || hedgeDelayNanos < 0)) {
+            long[] sorted = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sampleCount) - 1;
+            hedgeDelayNanos = sorted[Math.max(0, Math.min(sampleCount - 1, index))];
+            recordedSinceRecompute = 0;
+        }
+    }
+
+    /**
+     * Gets the current hedge delay.
+     *
+     * @return delay in nanoseconds, or -1 if too few latencies are known yet
+     */
+    public synchronized long getHedgeDelayNanos() {
+        return hedgeDelayNanos;
+    }
+}
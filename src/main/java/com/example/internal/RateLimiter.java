@@ -0,0 +1,128 @@
+package com.example.internal;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket rate limiter for outbound API requests.
+ *
+ * <p>The bucket holds up to {@code burst} tokens and refills at {@code permitsPerSecond}.
+ * Each request takes one token. When the bucket is empty, a request reserves the next
+ * token and waits until it is refilled, so queued requests leave at the target rate
+ * instead of all at once. A request that would have to wait longer than
+ * {@code maxWait} is rejected instead; with a zero {@code maxWait} every excess
+ * request is rejected.</p>
+ *
+ * <p>Reservations never block a thread: the caller receives the delay and schedules
+ * the request itself.</p>
+ *
+ * <p><b>Internal class:</b> This class is intended for internal SDK use
+ * and should not be used directly by library clients.</p>
+ */
+public final class RateLimiter {
+    /** Returned by {@link #reserve()} when the request must be rejected. */
+    public static final long REJECTED = -1;
+
+    private final double permitsPerSecond;
+    private final double burst;
+    private final long maxWaitNanos;
+    private final LongSupplier ticker;
+    private double tokens; // negative while requests are queued for future tokens
+    private long lastRefillNanos;
+
+    /**
+     * Creates a limiter with a full bucket.
+     *
+     * @param permitsPerSecond target request rate, must be positive
+     * @param burst maximum number of requests sent back-to-back, must be positive
+     * @param maxWait longest time a request may be queued, must not be negative
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public RateLimiter(double permitsPerSecond, int burst, Duration maxWait) {
+        this(permitsPerSecond, burst, maxWait, System::nanoTime);
+    }
+
+    RateLimiter(double permitsPerSecond, int burst, Duration maxWait, LongSupplier ticker) {
+        if (!(permitsPerSecond > 0) || Double.isInfinite(permitsPerSecond)) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("burst must be positive: " + burst);
+        }
+        if (maxWait.isNegative()) {
+            throw new IllegalArgumentException("maxWait must not be negative: " + maxWait);
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.ticker = ticker;
+        this.tokens = burst;
+        this.lastRefillNanos = ticker.getAsLong();
+    }
+
+    /**
+     * Takes a token for one request.
+     *
+     * @return nanoseconds the request must wait before it is sent (0 to send at once),
+     *         or {@link #REJECTED} if the wait would exceed the maximum
+     */
+    public long reserve() {
+        return reserve(maxWaitNanos);
+    }
+
+    /**
+     * Takes a token for one request that is only worth sending within the given time,
+     * e.g. before its deadline.
+     *
+     * @param timeoutNanos longest time the request may wait, if shorter than the maximum
+     * @return nanoseconds the request must wait before it is sent (0 to send at once),
+     *         or {@link #REJECTED} if the wait would exceed the maximum or the timeout
+     */
+    public synchronized long reserve(long timeoutNanos) {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        long waitNanos = (long) Math.ceil((1 - tokens) / permitsPerSecond * 1_000_000_000L);
+        if (waitNanos > Math.min(maxWaitNanos, timeoutNanos)) {
+            return REJECTED;
+        }
+        tokens -= 1;
+        return waitNanos;
+    }
+
+    /**
+     * Takes a token only if one is available right now, without queueing.
+     *
+     * @return true if a token was taken
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the current number of tokens in the bucket.
+     *
+     * @return tokens available for immediate requests; negative when requests are
+     *         queued for tokens that have not been refilled yet
+     */
+    public synchronized double getAvailableTokens() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = ticker.getAsLong();
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(burst, tokens + elapsed * permitsPerSecond / 1_000_000_000L);
+            lastRefillNanos = now;
+        }
+    }
+}
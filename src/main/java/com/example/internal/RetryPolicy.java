@@ -0,0 +1,122 @@
+package com.example.internal;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retry policy for transient OpenWeather API failures.
+ *
+ * <p>I/O errors and 429, 500, 502, 503 and 504 responses are retried up to
+ * {@code maxRetries} times. The delay before retry {@code n} (starting at 0) is drawn
+ * uniformly from {@code [0, min(maxDelay, baseDelay * 2^n)]} ("full jitter"), so that
+ * clients failing at the same moment do not retry in lockstep. A {@code Retry-After}
+ * header on the response replaces the computed delay. No retry is started that could
+ * not begin before the per-call deadline.</p>
+ *
+ * <p><b>Internal class:</b> This class is intended for internal SDK use
+ * and should not be used directly by library clients.</p>
+ */
+public final class RetryPolicy {
+    /** Returned by {@link #parseRetryAfter(String, long)} when the header is absent or invalid. */
+    public static final long NO_RETRY_AFTER = -1;
+    /** Policy that never retries. */
+    public static final RetryPolicy NONE =
+            new RetryPolicy(0, Duration.ofMillis(1), Duration.ofMillis(1), Duration.ofDays(1));
+
+    private final int maxRetries;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final long deadlineNanos;
+
+    /**
+     * Creates a retry policy.
+     *
+     * @param maxRetries maximum number of retries after the first attempt; 0 disables retries
+     * @param baseDelay upper bound of the first backoff, must be positive
+     * @param maxDelay cap of the backoff, must not be shorter than {@code baseDelay}
+     * @param deadline total time budget of a call including all retries, must be positive
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public RetryPolicy(int maxRetries, Duration baseDelay, Duration maxDelay, Duration deadline) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries must not be negative: " + maxRetries);
+        }
+        if (baseDelay.isNegative() || baseDelay.isZero() || maxDelay.compareTo(baseDelay) < 0) {
+            throw new IllegalArgumentException("Invalid backoff: base " + baseDelay + ", max " + maxDelay);
+        }
+        if (deadline.isNegative() || deadline.isZero()) {
+            throw new IllegalArgumentException("deadline must be positive: " + deadline);
+        }
+        this.maxRetries = maxRetries;
+        this.baseDelayNanos = baseDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.deadlineNanos = deadline.toNanos();
+    }
+
+    public int getMaxRetries() { return maxRetries; }
+    public long getDeadlineNanos() { return deadlineNanos; }
+
+    /**
+     * Checks whether a response status indicates a transient failure.
+     *
+     * @param statusCode HTTP status code
+     * @return true for 429 and 500, 502, 503, 504
+     */
+    public static boolean isRetryable(int statusCode) {
+        return statusCode == 429 || statusCode == 500 || (statusCode >= 502 && statusCode <= 504);
+    }
+
+    /**
+     * Checks whether a transport failure is transient.
+     *
+     * @param error failure of the HTTP exchange
+     * @return true for I/O errors, including connect and request timeouts
+     */
+    public static boolean isRetryable(Throwable error) {
+        return error instanceof IOException;
+    }
+
+    /**
+     * Computes a jittered backoff.
+     *
+     * @param retry number of the retry, starting at 0
+     * @return delay in nanoseconds, between 0 and the capped exponential bound
+     */
+    public long backoffNanos(int retry) {
+        long bound = retry >= 62 || baseDelayNanos > (maxDelayNanos >> retry)
+                ? maxDelayNanos : baseDelayNanos << retry;
+        return ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    /**
+     * Parses a {@code Retry-After} header value.
+     *
+     * @param value delay in seconds or an HTTP date, may be null
+     * @param nowMillis current time in epoch milliseconds, for HTTP dates
+     * @return delay in nanoseconds (0 for dates in the past), or {@link #NO_RETRY_AFTER}
+     */
+    public static long parseRetryAfter(String value, long nowMillis) {
+        if (value == null || value.isBlank()) {
+            return NO_RETRY_AFTER;
+        }
+        String trimmed = value.trim();
+        try {
+            long seconds = Long.parseLong(trimmed);
+            return seconds < 0 ? NO_RETRY_AFTER : TimeUnit.SECONDS.toNanos(seconds);
+        } catch (NumberFormatException e) {
+            // Not delta-seconds, try an HTTP date
+        }
+        try {
+            long dateMillis = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant().toEpochMilli();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, dateMillis - nowMillis));
+        } catch (DateTimeParseException e) {
+            return NO_RETRY_AFTER;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.internal;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * HTTP client and JSON mapper shared by all SDK instances.
+ *
+ * <p>Every {@link com.example.WeatherSdk} in the registry sends its requests through one
+ * HTTP/2-capable {@link HttpClient}, so instances for different API keys share a connection
+ * pool and TLS sessions, and parse responses with one {@link ObjectMapper}, so Jackson builds
+ * its serializers once. The transport is reference-counted: each SDK instance acquires it on
+ * creation and releases it on shutdown. After the last release the next acquisition creates
+ * a fresh transport. A released transport keeps working for instances that still use it,
+ * e.g. on-demand calls to a deleted instance; the client owns its threads, which exit once
+ * it is no longer referenced.</p>
+ *
+ * <p><b>Internal class:</b> This class is intended for internal SDK use
+ * and should not be used directly by library clients.</p>
+ */
+public final class SharedTransport {
+    private static final Object lock = new Object();
+    private static SharedTransport current;
+    private static int references;
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private boolean released;
+
+    private SharedTransport() {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * Gets the shared transport, creating it if no SDK instance holds it.
+     * Each call must be matched by one {@link #release()}.
+     *
+     * @return shared transport
+     */
+    public static SharedTransport acquire() {
+        synchronized (lock) {
+            if (current == null) {
+                current = new SharedTransport();
+            }
+            references++;
+            return current;
+        }
+    }
+
+    /**
+     * Releases one reference; after the last release the transport is no longer shared
+     * with instances created later.
+     */
+    public void release() {
+        synchronized (lock) {
+            if (released || references == 0) {
+                return;
+            }
+            if (--references == 0) {
+                released = true;
+                // In-flight requests and remaining holders keep using the client
+                current = null;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of SDK instances holding the transport.
+     *
+     * @return number of unreleased references
+     */
+    static int getReferenceCount() {
+        synchronized (lock) {
+            return references;
+        }
+    }
+
+    /**
+     * Checks whether the last reference to this transport has been released.
+     *
+     * @return true if the transport is no longer handed out by {@link #acquire()}
+     */
+    boolean isReleased() {
+        synchronized (lock) {
+            return released;
+        }
+    }
+
+    /**
+     * Gets the shared HTTP client.
+     *
+     * @return HTTP/2-capable client with a 10 second connect timeout
+     */
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Gets the shared JSON mapper.
+     *
+     * @return mapper that ignores unknown properties
+     */
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.internal;
+
+import com.example.exception.WeatherApiException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of in-flight loads that coalesces concurrent loads of the same key.
+ *
+ * <p>The first caller for a key runs the loader; every caller that arrives while
+ * the load is running waits for it and receives the same value or the same
+ * exception. Once the load finishes the key is released, so the next caller
+ * starts a fresh load. Blocking and asynchronous loads share the registry,
+ * so a blocking caller can join an asynchronous load and vice versa.</p>
+ *
+ * <p><b>Internal class:</b> This class is intended for internal SDK use
+ * and should not be used directly by library clients.</p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class SingleFlight<K, V> {
+
+    /**
+     * Loads a value, possibly by calling the OpenWeather API.
+     *
+     * @param <V> value type
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws WeatherApiException;
+    }
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the loader unless a load for the same key is already running,
+     * in which case waits for that load instead.
+     *
+     * @param key load key (e.g. normalized city name)
+     * @param loader loader to run if no load is in flight
+     * @return loaded value
+     * @throws WeatherApiException if the load fails or the wait is interrupted
+     */
+    public V execute(K key, Loader<V> loader) throws WeatherApiException {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return Futures.await(existing);
+        }
+        try {
+            V value = loader.load();
+            future.complete(value);
+            return value;
+        } catch (WeatherApiException | RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Starts the asynchronous loader unless a load for the same key is already running,
+     * in which case returns a future of that load instead.
+     *
+     * @param key load key (e.g. normalized city name)
+     * @param loader loader to start if no load is in flight
+     * @return future completed with the loaded value, or exceptionally with the load failure
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            // A copy keeps callers from completing the shared future
+            return existing.copy();
+        }
+        CompletableFuture<V> source;
+        try {
+            source = loader.get();
+        } catch (RuntimeException | Error e) {
+            source = CompletableFuture.failedFuture(e);
+        }
+        source.whenComplete((value, error) -> {
+            if (error != null) {
+                future.completeExceptionally(Futures.unwrap(error));
+            } else {
+                future.complete(value);
+            }
+            inFlight.remove(key, future);
+        });
+        return future.copy();
+    }
+
+    /**
+     * Gets the number of loads currently in flight.
+     *
+     * @return number of in-flight loads
+     */
+    public int size() {
+        return inFlight.size();
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.internal;
 
+import com.example.model.CircuitBreakerState;
 import com.example.model.WeatherData;
+import com.example.exception.CircuitBreakerOpenException;
+import com.example.exception.CityNotFoundException;
 import com.example.exception.WeatherApiException;
 import com.example.config.WeatherConfig;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import java.io.IOException;
 import java.net.URI;
@@ -13,6 +17,11 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * Client for OpenWeather API 3.0
@@ -22,11 +31,18 @@ import java.time.Duration;
  */
 public class WeatherApiClient {
     private final HttpClient httpClient;
-    private final ObjectMapper objectMapper;
+    private final ObjectReader weatherReader;
+    private final ObjectReader geocodingReader;
     private final String apiKey;
+    private final RateLimiter rateLimiter; // null = unlimited
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker circuitBreaker; // null = always closed
+    private final HedgingPolicy hedgingPolicy; // null = no hedging
     private static final String GEOCODING_URL = "http://api.openweathermap.org/geo/1.0/direct";
     // Use 2.5 endpoint for free API keys
     private static final String WEATHER_URL = "https://api.openweathermap.org/data/2.5/weather";
+    private static final long REQUEST_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long MIN_REQUEST_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
     
     /**
      * Creates a client with the specified API key
@@ -35,14 +51,53 @@ public class WeatherApiClient {
      * @throws WeatherApiException if API key is not provided
      */
     public WeatherApiClient(String apiKey) throws WeatherApiException {
+        this(apiKey, HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build(), new ObjectMapper());
+    }
+
+    /**
+     * Creates a client that sends requests through the given HTTP client and parses
+     * responses with the given mapper, e.g. the ones of {@link SharedTransport}
+     * 
+     * @param apiKey OpenWeather API key
+     * @param httpClient HTTP client to send requests with
+     * @param objectMapper mapper to parse responses with
+     * @throws WeatherApiException if API key is not provided
+     */
+    public WeatherApiClient(String apiKey, HttpClient httpClient, ObjectMapper objectMapper)
+            throws WeatherApiException {
+        this(apiKey, httpClient, objectMapper, null, RetryPolicy.NONE, null, null);
+    }
+
+    /**
+     * Creates a client whose requests are throttled by the given rate limiter,
+     * retried according to the given policy, guarded by the given circuit breaker
+     * and, for weather requests, hedged according to the given policy
+     * 
+     * @param apiKey OpenWeather API key
+     * @param httpClient HTTP client to send requests with
+     * @param objectMapper mapper to parse responses with
+     * @param rateLimiter limiter every attempt takes a token from, or null for no limit
+     * @param retryPolicy policy for retrying transient failures
+     * @param circuitBreaker breaker every attempt must pass, or null for none
+     * @param hedgingPolicy policy for hedging slow weather requests, or null for none
+     * @throws WeatherApiException if API key is not provided
+     */
+    public WeatherApiClient(String apiKey, HttpClient httpClient, ObjectMapper objectMapper,
+                            RateLimiter rateLimiter, RetryPolicy retryPolicy,
+                            CircuitBreaker circuitBreaker, HedgingPolicy hedgingPolicy) throws WeatherApiException {
         if (apiKey == null || apiKey.trim().isEmpty()) {
             throw new WeatherApiException("API key cannot be empty");
         }
         this.apiKey = apiKey.trim();
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
-        this.objectMapper = new ObjectMapper();
+        this.httpClient = httpClient;
+        this.rateLimiter = rateLimiter;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+        this.hedgingPolicy = hedgingPolicy;
+        this.weatherReader = objectMapper.readerFor(WeatherData.class);
+        this.geocodingReader = objectMapper.readerFor(GeocodingResult[].class);
     }
 
     /**
@@ -69,63 +124,53 @@ public class WeatherApiClient {
      * @throws WeatherApiException if error occurs
      */
     public GeocodingResult getCoordinatesByCityName(String cityName) throws WeatherApiException {
-        return getCoordinates(cityName);
+        return Futures.await(getCoordinatesByCityNameAsync(cityName));
     }
 
     /**
-     * Gets coordinates for the specified city name
-                }
-     * @return city coordinates
-     * @throws WeatherApiException if city is not found or an error occurs
+     * Asynchronously gets coordinates for the specified city name using Geocoding API.
+     * The calling thread is not blocked while the request is in flight.
+     *
+     * @param cityName name of the city
+     * @return future completed with the city coordinates, or exceptionally with
+     *         {@link CityNotFoundException} if the city is not found or
+     *         {@link WeatherApiException} if an error occurs
      */
-    private GeocodingResult getCoordinates(String cityName) throws WeatherApiException {
-        try {
-            String encodedCity = URLEncoder.encode(cityName, StandardCharsets.UTF_8);
-            String url = String.format("%s?q=%s&limit=1&appid=%s", 
-                GEOCODING_URL, encodedCity, apiKey);
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .GET()
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, 
-                HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() == 200) {
-                GeocodingResult[] results = objectMapper.readValue(
-                    response.body(), GeocodingResult[].class);
-                
-                if (results.length == 0) {
-                    throw new WeatherApiException("City not found: " + cityName);
-                }
-                
-                return results[0];
-            } else {
-                throw new WeatherApiException("API error while searching for city: " + 
+    public CompletableFuture<GeocodingResult> getCoordinatesByCityNameAsync(String cityName) {
+        String encodedCity = URLEncoder.encode(cityName, StandardCharsets.UTF_8);
+        String url = String.format("%s?q=%s&limit=1&appid=%s",
+            GEOCODING_URL, encodedCity, apiKey);
+
+        return sendAsync(url, "Error while getting coordinates", false, response -> {
+            if (response.statusCode() != 200) {
+                throw new WeatherApiException("API error while searching for city: " +
                     response.statusCode());
             }
-        } catch (IOException | InterruptedException e) {
-            throw new WeatherApiException("Error while getting coordinates: " + 
-                e.getMessage());
-        }
+            GeocodingResult[] results = geocodingReader.readValue(response.body());
+
+            if (results.length == 0) {
+                throw new CityNotFoundException("City not found: " + cityName);
+            }
+
+            return results[0];
+        });
     }
-    
+
     /**
      * Creates a client using API key from WeatherConfig
      * 
      * @throws WeatherApiException if API key is not set in WeatherConfig
      */
     public WeatherApiClient() throws WeatherApiException {
+        this(configuredApiKey());
+    }
+
+    private static String configuredApiKey() throws WeatherApiException {
         if (!WeatherConfig.isApiKeySet()) {
             throw new WeatherApiException("API key is not set! " +
                     "Please add your API key to WeatherConfig.API_KEY");
         }
-        this.apiKey = WeatherConfig.API_KEY.trim();
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
-        this.objectMapper = new ObjectMapper();
+        return WeatherConfig.API_KEY;
     }
     
     /**
@@ -140,40 +185,9 @@ public class WeatherApiClient {
             throw new WeatherApiException("City name cannot be empty");
         }
 
-        // First get city coordinates using Geocoding API
-        GeocodingResult coords = getCoordinates(cityName);
-
-        try {
-            // Form URL for weather request using coordinates via Weather API 3.0
-            String url = String.format("%s?lat=%.6f&lon=%.6f&appid=%s&units=metric&lang=ru",
-                WEATHER_URL, coords.lat, coords.lon, apiKey);
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .timeout(Duration.ofSeconds(10))
-                    .GET()
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request,
-                HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() == 200) {
-                return objectMapper.readValue(response.body(), WeatherData.class);
-            } else if (response.statusCode() == 404) {
-                throw new WeatherApiException("City not found: " + cityName);
-            } else {
-                throw new WeatherApiException("Error while getting weather: " +
-                    response.statusCode() + " - " + response.body());
-            }
-
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new WeatherApiException("Request was interrupted", e);
-        } catch (IOException e) {
-            throw new WeatherApiException("Error processing API response: " + e.getMessage(), e);
-        } catch (Exception e) {
-            throw new WeatherApiException("Unexpected error while getting weather: " + e.getMessage(), e);
-        }
+        // First get city coordinates using Geocoding API, then weather for them
+        return Futures.await(getCoordinatesByCityNameAsync(cityName)
+                .thenCompose(coords -> getCurrentWeatherByCoordinatesAsync(coords.lat, coords.lon)));
     }
 
     /**
@@ -185,45 +199,260 @@ public class WeatherApiClient {
      * @throws WeatherApiException if coordinates are invalid or an error occurs
      */
     public WeatherData getCurrentWeatherByCoordinates(double lat, double lon) throws WeatherApiException {
+        return Futures.await(getCurrentWeatherByCoordinatesAsync(lat, lon));
+    }
+
+    /**
+     * Asynchronously gets current weather using coordinates.
+     * The calling thread is not blocked while the request is in flight.
+     *
+     * @param lat latitude (from -90 to 90)
+     * @param lon longitude (from -180 to 180)
+     * @return future completed with the weather data, or exceptionally with
+     *         {@link WeatherApiException} if coordinates are invalid or an error occurs
+     */
+    public CompletableFuture<WeatherData> getCurrentWeatherByCoordinatesAsync(double lat, double lon) {
         if (lat < -90 || lat > 90) {
-            throw new WeatherApiException("Invalid latitude. Must be between -90 and 90");
+            return CompletableFuture.failedFuture(
+                new WeatherApiException("Invalid latitude. Must be between -90 and 90"));
         }
         if (lon < -180 || lon > 180) {
-            throw new WeatherApiException("Invalid longitude. Must be between -180 and 180");
+            return CompletableFuture.failedFuture(
+                new WeatherApiException("Invalid longitude. Must be between -180 and 180"));
         }
-        
+
+        String url = String.format("%s?lat=%.6f&lon=%.6f&appid=%s&units=metric&lang=ru",
+                WEATHER_URL,
+                lat,
+                lon,
+                apiKey);
+
+        // Weather requests are idempotent and latency-sensitive, so they may be hedged
+        return sendAsync(url, "Unexpected error while requesting weather", true, response -> {
+            switch (response.statusCode()) {
+                case 200:
+                    return weatherReader.readValue(response.body());
+                case 401:
+                    throw new WeatherApiException("Invalid API key. Check your key.");
+                case 429:
+                    throw new WeatherApiException("Request limit exceeded. Try again later.");
+                case 500:
+                case 502:
+                case 503:
+                    throw new WeatherApiException("OpenWeather server error. Try again later.");
+                default:
+                    throw new WeatherApiException("API error: " + response.statusCode() +
+                        " - " + new String(response.body(), StandardCharsets.UTF_8));
+            }
+        });
+    }
+
+    /**
+     * Sends a GET request without blocking and parses the response.
+     *
+     * @param url request URL
+     * @param errorMessage message prefix for transport failures
+     * @param hedged whether slow attempts may be hedged
+     * @param parser converts the response into the result
+     * @return future completed with the parsed result, or exceptionally with {@link WeatherApiException}
+     */
+    private <T> CompletableFuture<T> sendAsync(String url, String errorMessage, boolean hedged,
+                                               ResponseParser<T> parser) {
+        URI uri;
         try {
-            String url = String.format("%s?lat=%.6f&lon=%.6f&appid=%s&units=metric&lang=ru",
-                    WEATHER_URL,
-                    lat,
-                    lon,
-                    apiKey);
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(
+                new WeatherApiException(errorMessage + ": " + e.getMessage(), e));
+        }
 
+        return sendWithRetries(uri, hedged, 0, System.nanoTime() + retryPolicy.getDeadlineNanos())
+                .handle((response, error) -> {
+                    try {
+                        if (error != null) {
+                            Throwable cause = Futures.unwrap(error);
+                            if (cause instanceof WeatherApiException) {
+                                throw (WeatherApiException) cause;
+                            }
+                            throw new WeatherApiException(errorMessage + ": " + cause.getMessage(), cause);
+                        }
+                        return parser.parse(response);
+                    } catch (IOException e) {
+                        throw Futures.wrap(new WeatherApiException(
+                            "Error processing API response: " + e.getMessage(), e));
+                    } catch (WeatherApiException e) {
+                        throw Futures.wrap(e);
+                    }
+                });
+    }
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .timeout(Duration.ofSeconds(10))
-                    .GET()
-                    .build();
+    /**
+     * Sends a GET request, retrying transient failures while the retry policy and
+     * the call deadline allow. Returns the last response or failure.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> sendWithRetries(URI uri, boolean hedged, int retry,
+                                                                     long deadlineNanos) {
+        return send(uri, hedged, deadlineNanos).handle((response, error) -> {
+            long delayNanos = retryDelayNanos(response, error, retry);
+            // Compared as a difference: a huge Retry-After saturates to Long.MAX_VALUE
+            if (delayNanos < 0 || delayNanos >= deadlineNanos - System.nanoTime()) {
+                return error == null
+                        ? CompletableFuture.completedFuture(response)
+                        : CompletableFuture.<HttpResponse<byte[]>>failedFuture(Futures.unwrap(error));
+            }
+            Executor delayed = CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS);
+            return CompletableFuture.runAsync(() -> { }, delayed)
+                    .thenCompose(ignored -> sendWithRetries(uri, hedged, retry + 1, deadlineNanos));
+        }).thenCompose(Function.identity());
+    }
 
-            HttpResponse<String> response = httpClient.send(request, 
-                HttpResponse.BodyHandlers.ofString());
+    /**
+     * Gets the delay before the next retry, or -1 if the outcome must not be retried.
+     */
+    private long retryDelayNanos(HttpResponse<byte[]> response, Throwable error, int retry) {
+        if (retry >= retryPolicy.getMaxRetries()) {
+            return -1;
+        }
+        if (error != null) {
+            return RetryPolicy.isRetryable(Futures.unwrap(error)) ? retryPolicy.backoffNanos(retry) : -1;
+        }
+        if (!RetryPolicy.isRetryable(response.statusCode())) {
+            return -1;
+        }
+        long retryAfterNanos = RetryPolicy.parseRetryAfter(
+                response.headers().firstValue("Retry-After").orElse(null), System.currentTimeMillis());
+        return retryAfterNanos != RetryPolicy.NO_RETRY_AFTER ? retryAfterNanos : retryPolicy.backoffNanos(retry);
+    }
 
+    /**
+     * Sends the request once a rate limit token is available. The circuit breaker is
+     * asked for a permit only then, so that a request queued for a token does not hold
+     * one of the half-open probes while it waits. A request that could not get a token
+     * before the call deadline is rejected at once.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> send(URI uri, boolean hedged, long deadlineNanos) {
+        // An open breaker fails fast without spending a token
+        if (circuitBreaker != null && circuitBreaker.getState() == CircuitBreakerState.OPEN) {
+            return CompletableFuture.failedFuture(circuitBreakerOpen());
+        }
+        long delayNanos = rateLimiter != null ? rateLimiter.reserve(deadlineNanos - System.nanoTime()) : 0;
+        if (delayNanos == RateLimiter.REJECTED) {
+            return CompletableFuture.failedFuture(
+                new WeatherApiException("Client-side request rate limit exceeded. Try again later."));
+        }
+        if (delayNanos == 0) {
+            return sendThroughCircuitBreaker(newRequest(uri, deadlineNanos), hedged);
+        }
+        // Queued: wait for the reserved token without holding a thread
+        Executor delayed = CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS);
+        return CompletableFuture.runAsync(() -> { }, delayed)
+                .thenCompose(ignored -> sendThroughCircuitBreaker(newRequest(uri, deadlineNanos), hedged));
+    }
 
-            if (response.statusCode() == 200) {
-                return objectMapper.readValue(response.body(), WeatherData.class);
+    /**
+     * Creates the request for one attempt, timing out no later than the call deadline.
+     * Built once the attempt has its rate limit token, so time spent queued is not
+     * granted again to the request.
+     */
+    private static HttpRequest newRequest(URI uri, long deadlineNanos) {
+        long timeoutNanos = Math.max(MIN_REQUEST_TIMEOUT_NANOS,
+                Math.min(REQUEST_TIMEOUT_NANOS, deadlineNanos - System.nanoTime()));
+        return HttpRequest.newBuilder()
+                .uri(uri)
+                .timeout(Duration.ofNanos(timeoutNanos))
+                .GET()
+                .build();
+    }
+
+    /**
+     * Sends the request if the circuit breaker admits it and reports the outcome to it.
+     * I/O errors and 5xx responses count as failures.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> sendThroughCircuitBreaker(HttpRequest request, boolean hedged) {
+        if (circuitBreaker == null) {
+            return exchange(request, hedged);
+        }
+        long permit = circuitBreaker.tryAcquire();
+        if (permit == CircuitBreaker.REJECTED) {
+            return CompletableFuture.failedFuture(circuitBreakerOpen());
+        }
+        return exchange(request, hedged).whenComplete((response, error) -> {
+            if (error != null) {
+                if (Futures.unwrap(error) instanceof IOException) {
+                    circuitBreaker.onFailure(permit);
+                } else {
+                    circuitBreaker.onIgnored(permit);
+                }
+            } else if (response.statusCode() >= 500) {
+                circuitBreaker.onFailure(permit);
             } else {
-                throw new WeatherApiException("API error: " + response.statusCode() + 
-                    " - " + response.body());
+                circuitBreaker.onSuccess(permit);
             }
+        });
+    }
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new WeatherApiException("Request was interrupted", e);
-        } catch (IOException e) {
-            throw new WeatherApiException("Error processing API response", e);
-        } catch (Exception e) {
-            throw new WeatherApiException("Unexpected error while requesting weather: " + e.getMessage(), e);
+    private static CircuitBreakerOpenException circuitBreakerOpen() {
+        return new CircuitBreakerOpenException(
+            "OpenWeather API is unavailable after repeated failures. Try again later.");
+    }
+
+    /**
+     * Sends the request over HTTP. A hedged request that has not answered within the
+     * hedge delay is sent a second time if the hedge budget and the rate limiter allow;
+     * the first response wins and the other exchange is cancelled.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> exchange(HttpRequest request, boolean hedged) {
+        if (!hedged || hedgingPolicy == null) {
+            // Bodies are parsed from bytes, without an intermediate String copy
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        }
+        long hedgeDelayNanos = hedgingPolicy.onRequest();
+        CompletableFuture<HttpResponse<byte[]>> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger();
+        CompletableFuture<HttpResponse<byte[]>> primary = timedExchange(request, result, pending);
+        result.whenComplete((response, error) -> primary.cancel(true));
+        if (hedgeDelayNanos >= 0) {
+            Executor delayed = CompletableFuture.delayedExecutor(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+            CompletableFuture.runAsync(() -> {
+                if (result.isDone() || !hedgingPolicy.tryAcquireHedge()
+                        || (rateLimiter != null && !rateLimiter.tryAcquire())) {
+                    return;
+                }
+                CompletableFuture<HttpResponse<byte[]>> hedge = timedExchange(request, result, pending);
+                result.whenComplete((response, error) -> hedge.cancel(true));
+            }, delayed);
         }
+        return result;
+    }
+
+    /**
+     * Sends one exchange of a hedged request. Its response completes the result and its
+     * latency is recorded; its failure only completes the result if no other exchange
+     * of the request is still pending.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> timedExchange(HttpRequest request,
+                                                                  CompletableFuture<HttpResponse<byte[]>> result,
+                                                                  AtomicInteger pending) {
+        long start = System.nanoTime();
+        pending.incrementAndGet();
+        CompletableFuture<HttpResponse<byte[]>> exchange =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        exchange.whenComplete((response, error) -> {
+            if (error == null) {
+                hedgingPolicy.recordLatency(System.nanoTime() - start);
+                result.complete(response);
+            } else if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        });
+        return exchange;
+    }
+
+    /**
+     * Converts an HTTP response into a result.
+     */
+    @FunctionalInterface
+    private interface ResponseParser<T> {
+        T parse(HttpResponse<byte[]> response) throws IOException, WeatherApiException;
     }
-}
\ No newline at end of file
+}
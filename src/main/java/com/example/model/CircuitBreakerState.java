@@ -0,0 +1,15 @@
+package com.example.model;
+
+/**
+ * State of the circuit breaker in front of the OpenWeather API.
+ *
+ * <p>Returned by {@link com.example.WeatherSdk#getCircuitBreakerState()}.</p>
+ */
+public enum CircuitBreakerState {
+    /** Requests are sent normally; their outcomes are tracked. */
+    CLOSED,
+    /** The failure rate exceeded the threshold; requests fail fast without being sent. */
+    OPEN,
+    /** The open period has elapsed; a few probe requests decide whether to close again. */
+    HALF_OPEN
+}
@@ -0,0 +1,43 @@
+package com.example.model;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Metrics of one POLLING mode refresh cycle.
+ *
+ * <p>Returned by {@link com.example.WeatherSdk#getLastPollingCycle()}. A cycle refreshes
+ * every cached city once; refreshes run concurrently up to the configured limit.</p>
+ */
+public final class PollingCycleStats {
+    private final Instant startTime;
+    private final Duration duration;
+    private final int successCount;
+    private final int failureCount;
+
+    /**
+     * Creates cycle metrics.
+     *
+     * @param startTime time the cycle started
+     * @param duration time from the start of the cycle until its last refresh finished
+     * @param successCount number of cities refreshed successfully
+     * @param failureCount number of cities whose refresh failed
+     */
+    public PollingCycleStats(Instant startTime, Duration duration, int successCount, int failureCount) {
+        this.startTime = startTime;
+        this.duration = duration;
+        this.successCount = successCount;
+        this.failureCount = failureCount;
+    }
+
+    public Instant getStartTime() { return startTime; }
+    public Duration getDuration() { return duration; }
+    public int getSuccessCount() { return successCount; }
+    public int getFailureCount() { return failureCount; }
+
+    @Override
+    public String toString() {
+        return "PollingCycleStats{startTime=" + startTime + ", duration=" + duration
+                + ", successCount=" + successCount + ", failureCount=" + failureCount + "}";
+    }
+}
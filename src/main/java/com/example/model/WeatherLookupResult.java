@@ -0,0 +1,63 @@
+package com.example.model;
+
+import com.example.exception.WeatherApiException;
+
+/**
+ * Result of looking up one city in a bulk request: either weather data or the error.
+ *
+ * <p>Returned by {@link com.example.WeatherSdk#getCurrentWeatherBulk(java.util.Collection)},
+ * so that one unknown city does not fail the whole request.</p>
+ */
+public final class WeatherLookupResult {
+    private final WeatherData data;
+    private final WeatherApiException error;
+
+    private WeatherLookupResult(WeatherData data, WeatherApiException error) {
+        this.data = data;
+        this.error = error;
+    }
+
+    /**
+     * Creates a successful result.
+     *
+     * @param data weather data
+     * @return result holding the data
+     */
+    public static WeatherLookupResult success(WeatherData data) {
+        return new WeatherLookupResult(data, null);
+    }
+
+    /**
+     * Creates a failed result.
+     *
+     * @param error lookup error
+     * @return result holding the error
+     */
+    public static WeatherLookupResult failure(WeatherApiException error) {
+        return new WeatherLookupResult(null, error);
+    }
+
+    public boolean isSuccess() { return error == null; }
+    public WeatherData getData() { return data; }
+    public WeatherApiException getError() { return error; }
+
+    /**
+     * Gets the weather data or throws the lookup error.
+     *
+     * @return weather data
+     * @throws WeatherApiException if the lookup failed
+     */
+    public WeatherData getDataOrThrow() throws WeatherApiException {
+        if (error != null) {
+            throw error;
+        }
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess()
+                ? "WeatherLookupResult{data=" + data + "}"
+                : "WeatherLookupResult{error=" + error.getMessage() + "}";
+    }
+}
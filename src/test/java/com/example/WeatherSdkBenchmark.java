@@ -0,0 +1,98 @@
+package com.example;
+
+import com.example.cache.EvictionPolicy;
+import com.example.exception.WeatherApiException;
+import com.example.internal.WeatherApiClient;
+import com.example.model.WeatherData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures {@link WeatherSdk#getCurrentWeather(String)} cache hits, looked up with
+ * mixed-case names padded with spaces as clients pass them.
+ *
+ * <p>Run with the GC profiler to check that a hit allocates nothing
+ * ({@code gc.alloc.rate.norm} of about 0 B/op):</p>
+ * <pre>{@code
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main WeatherSdkBenchmark -prof gc"
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeatherSdkBenchmark {
+    private static final String API_KEY = "benchmark-api-key";
+    private static final int CITIES = 1_000;
+    private static final int NAME_MASK = (1 << 12) - 1;
+
+    @Param({"LRU", "W_TINY_LFU"})
+    public EvictionPolicy evictionPolicy;
+
+    private WeatherSdk sdk;
+    private String[] cityNames;
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int index = ThreadLocalRandom.current().nextInt();
+    }
+
+    @Setup
+    public void setUp() throws WeatherApiException {
+        WeatherApiClient.GeocodingResult coordinates = new WeatherApiClient.GeocodingResult();
+        coordinates.lat = 55.75;
+        coordinates.lon = 37.62;
+        WeatherApiClient apiClient = mock(WeatherApiClient.class);
+        when(apiClient.getCoordinatesByCityName(anyString())).thenReturn(coordinates);
+        when(apiClient.getCurrentWeatherByCoordinates(anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> new WeatherData());
+
+        sdk = WeatherSdk.builder(API_KEY)
+                .cacheCapacity(CITIES)
+                .cacheTtl(Duration.ofHours(1))
+                .evictionPolicy(evictionPolicy)
+                .apiClient(apiClient)
+                .build();
+        for (int i = 0; i < CITIES; i++) {
+            sdk.getCurrentWeather("city-" + i);
+        }
+        cityNames = new String[NAME_MASK + 1];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < cityNames.length; i++) {
+            int city = random.nextInt(CITIES);
+            cityNames[i] = i % 2 == 0 ? "City-" + city : "  CITY-" + city + " ";
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        WeatherSdk.delete(API_KEY);
+    }
+
+    @Benchmark
+    public WeatherData getCurrentWeather_Hit(ThreadState state) throws WeatherApiException {
+        return sdk.getCurrentWeather(cityNames[state.index++ & NAME_MASK]);
+    }
+}
@@ -1,12 +1,44 @@
 package com.example;
 
+import com.example.cache.CacheStats;
+import com.example.cache.WeatherCacheEntry;
 import com.example.config.SdkMode;
+import com.example.exception.CircuitBreakerOpenException;
+import com.example.exception.CityNotFoundException;
 import com.example.exception.WeatherApiException;
+import com.example.internal.VirtualThreads;
+import com.example.internal.WeatherApiClient;
+import com.example.model.CircuitBreakerState;
+import com.example.model.PollingCycleStats;
+import com.example.model.WeatherData;
+import com.example.model.WeatherLookupResult;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
 
 class WeatherSdkTest {
 
@@ -233,6 +265,841 @@ class WeatherSdkTest {
         assertNotSame(sdk2, sdk3);
     }
 
-    // Additional tests for cache logic, LRU, TTL, and POLLING mode can be added here
+    @Test
+    void testGetCurrentWeather_ReturnsCachedDataOnSecondCall() throws WeatherApiException {
+        WeatherApiClient apiClient = mockApiClient();
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY).apiClient(apiClient).build();
+
+        WeatherData first = sdk.getCurrentWeather("Moscow");
+        WeatherData second = sdk.getCurrentWeather("  moscow ");
+
+        assertSame(first, second);
+        assertEquals(1, sdk.getCacheSize());
+        verify(apiClient, times(1)).getCoordinatesByCityName(anyString());
+        verify(apiClient, times(1)).getCurrentWeatherByCoordinates(anyDouble(), anyDouble());
+        sdk.shutdown();
+    }
+
+    @Test
+    void testGetCurrentWeather_CoalescesConcurrentMisses() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(apiClient.getCoordinatesByCityName(anyString())).thenAnswer(invocation -> {
+            loaderStarted.countDown();
+            release.await();
+            return coordinates();
+        });
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY).apiClient(apiClient).build();
+        int callers = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        List<Future<WeatherData>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> sdk.getCurrentWeather("Moscow")));
+        }
+        assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        release.countDown();
+
+        WeatherData expected = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<WeatherData> result : results) {
+            assertSame(expected, result.get(5, TimeUnit.SECONDS));
+        }
+        verify(apiClient, times(1)).getCoordinatesByCityName(anyString());
+        verify(apiClient, times(1)).getCurrentWeatherByCoordinates(anyDouble(), anyDouble());
+        executor.shutdown();
+        sdk.shutdown();
+    }
+
+    @Test
+    void testBuilder_WithCustomSettings() throws WeatherApiException {
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .mode(SdkMode.ON_DEMAND)
+                .cacheCapacity(100_000)
+                .cacheTtl(Duration.ofMinutes(15))
+                .build();
+
+        assertEquals(SdkMode.ON_DEMAND, sdk.getMode());
+        assertEquals(100_000, sdk.getCacheCapacity());
+        assertSame(sdk, WeatherSdk.get(TEST_API_KEY));
+        assertSame(sdk, WeatherSdk.create(TEST_API_KEY, SdkMode.ON_DEMAND));
+    }
+
+    @Test
+    void testBuilder_DefaultsMatchCreate() throws WeatherApiException {
+        WeatherSdk sdk = WeatherSdk.create(TEST_API_KEY, SdkMode.ON_DEMAND);
+        assertEquals(WeatherSdk.DEFAULT_CACHE_CAPACITY, sdk.getCacheCapacity());
+    }
+
+    @Test
+    void testBuilder_WithRateLimit_ExposesTokenLevel() throws WeatherApiException {
+        WeatherSdk unlimited = WeatherSdk.builder("test-api-key-1").build();
+        WeatherSdk limited = WeatherSdk.builder("test-api-key-2").rateLimit(2.5).build();
+        WeatherSdk withBurst = WeatherSdk.builder("test-api-key-3").rateLimit(1).rateLimitBurst(5).build();
+
+        assertEquals(Double.POSITIVE_INFINITY, unlimited.getAvailableRateLimitTokens());
+        assertEquals(3.0, limited.getAvailableRateLimitTokens(), 1e-9);
+        assertEquals(5.0, withBurst.getAvailableRateLimitTokens(), 1e-9);
+    }
+
+    @Test
+    void testBuilder_WithInvalidSettings() {
+        assertThrows(WeatherApiException.class, () -> WeatherSdk.builder(TEST_API_KEY).cacheCapacity(0).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).cacheMaximumWeight(0).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).cacheMaximumWeight(1_000).cacheWeigher(null).build());
+        assertThrows(WeatherApiException.class, () -> WeatherSdk.builder(TEST_API_KEY).cacheTtl(Duration.ZERO).build());
+        assertThrows(WeatherApiException.class, () -> WeatherSdk.builder(TEST_API_KEY).cacheTtl(null).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).pollingInterval(Duration.ofSeconds(-1)).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).pollingConcurrency(0).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).bulkParallelism(0).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).warmUpRate(0).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).rateLimit(0).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).rateLimit(1).rateLimitBurst(0).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).rateLimitMaxWait(Duration.ofSeconds(-1)).build());
+        assertThrows(WeatherApiException.class, () -> WeatherSdk.builder(TEST_API_KEY).maxRetries(-1).build());
+        assertThrows(WeatherApiException.class, () -> WeatherSdk.builder(TEST_API_KEY)
+                .retryBackoff(Duration.ofSeconds(5), Duration.ofSeconds(1)).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).requestDeadline(Duration.ZERO).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).circuitBreakerFailureRate(1.5).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).circuitBreakerWindowSize(0).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).circuitBreakerOpenDuration(Duration.ZERO).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).hedgeAfterPercentile(100).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).hedgeBudget(0).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).geocodingCacheCapacity(0).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).geocodingCacheTtl(Duration.ZERO).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).negativeCacheTtl(Duration.ZERO).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).unknownCityFilterCapacity(-1).build());
+        assertThrows(WeatherApiException.class,
+                () -> WeatherSdk.builder(TEST_API_KEY).coordinatePrecision(0).build());
+        assertNull(WeatherSdk.get(TEST_API_KEY));
+    }
+
+    @Test
+    void testBuilder_WithExternalExecutor_IsNotShutDown() throws WeatherApiException {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                    .mode(SdkMode.POLLING)
+                    .pollingInterval(Duration.ofSeconds(30))
+                    .executor(executor)
+                    .build();
+            sdk.shutdown();
+            assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCleanUpTask_RunsOnBackgroundExecutorUntilShutdown() throws WeatherApiException {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        try {
+            WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                    .mode(SdkMode.STALE_WHILE_REVALIDATE)
+                    .executor(executor)
+                    .apiClient(mockApiClient())
+                    .build();
+            assertEquals(1, executor.getQueue().size());
+
+            sdk.shutdown();
+            assertTrue(executor.getQueue().isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCache_EvictsBeyondConfiguredCapacity() throws WeatherApiException {
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .cacheCapacity(2)
+                .apiClient(mockApiClient())
+                .build();
+
+        sdk.getCurrentWeather("Moscow");
+        sdk.getCurrentWeather("London");
+        sdk.getCurrentWeather("Paris");
+
+        assertEquals(2, sdk.getCacheSize());
+    }
+
+    @Test
+    void testCache_EvictsBeyondMaximumWeight() throws WeatherApiException {
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .cacheMaximumWeight(250)
+                .cacheWeigher((cityName, entry) -> cityName.equals("moscow") ? 200 : 100)
+                .apiClient(mockApiClient())
+                .build();
+
+        sdk.getCurrentWeather("Moscow");
+        sdk.getCurrentWeather("London");
+        assertEquals(1, sdk.getCacheSize());
+        assertEquals(100, sdk.getCacheWeight());
+
+        sdk.getCurrentWeather("Paris");
+        assertEquals(2, sdk.getCacheSize());
+        assertEquals(200, sdk.getCacheWeight());
+        assertEquals(Long.MAX_VALUE, sdk.getCacheCapacity());
+    }
+
+    @Test
+    void testCache_WithMaximumWeight_EstimatesBytesByDefault() throws WeatherApiException {
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .cacheMaximumWeight(1_000_000)
+                .apiClient(mockApiClient())
+                .build();
+
+        sdk.getCurrentWeather("Moscow");
+        assertTrue(sdk.getCacheWeight() > 100, "weight of one entry: " + sdk.getCacheWeight());
+        assertTrue(sdk.getCacheWeight() < 1_000);
+    }
+
+    @Test
+    void testGetCurrentWeather_ReusesCachedCoordinates() throws WeatherApiException {
+        WeatherApiClient apiClient = mockApiClient();
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .cacheCapacity(1)
+                .apiClient(apiClient)
+                .build();
+
+        sdk.getCurrentWeather("Moscow");
+        sdk.getCurrentWeather("London"); // evicts Moscow weather, coordinates stay cached
+        sdk.getCurrentWeather("Moscow");
+
+        assertEquals(2, sdk.getGeocodingCacheSize());
+        verify(apiClient, times(2)).getCoordinatesByCityName(anyString());
+        verify(apiClient, times(3)).getCurrentWeatherByCoordinates(anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testGetCurrentWeather_RetriesUnknownCityAfterNegativeCacheTtl() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        when(apiClient.getCoordinatesByCityName("Atlantis"))
+                .thenThrow(new CityNotFoundException("City not found: Atlantis"))
+                .thenReturn(coordinates());
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .negativeCacheTtl(Duration.ofMillis(50))
+                .apiClient(apiClient)
+                .build();
+
+        assertThrows(CityNotFoundException.class, () -> sdk.getCurrentWeather("Atlantis"));
+        assertThrows(CityNotFoundException.class, () -> sdk.getCurrentWeather("Atlantis"));
+        verify(apiClient, times(1)).getCoordinatesByCityName("Atlantis");
+
+        // Without the opt-in Bloom filter, the name is looked up again once the TTL has passed
+        Thread.sleep(100);
+        assertNotNull(sdk.getCurrentWeather("Atlantis"));
+        verify(apiClient, times(2)).getCoordinatesByCityName("Atlantis");
+    }
+
+    @Test
+    void testGetCurrentWeather_RemembersUnknownCities() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        when(apiClient.getCoordinatesByCityName("Mosow"))
+                .thenThrow(new CityNotFoundException("City not found: Mosow"));
+        when(apiClient.getCoordinatesByCityNameAsync("Lodnon"))
+                .thenReturn(CompletableFuture.failedFuture(new CityNotFoundException("City not found: Lodnon")));
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY).apiClient(apiClient).build();
+
+        assertThrows(CityNotFoundException.class, () -> sdk.getCurrentWeather("Mosow"));
+        assertThrows(CityNotFoundException.class, () -> sdk.getCurrentWeather(" mosow "));
+        assertInstanceOf(CityNotFoundException.class, assertThrows(ExecutionException.class,
+                () -> sdk.getCurrentWeatherAsync("MOSOW").get(5, TimeUnit.SECONDS)).getCause());
+        verify(apiClient, times(1)).getCoordinatesByCityName(anyString());
+        verify(apiClient, never()).getCoordinatesByCityNameAsync(anyString());
+
+        assertInstanceOf(CityNotFoundException.class, assertThrows(ExecutionException.class,
+                () -> sdk.getCurrentWeatherAsync("Lodnon").get(5, TimeUnit.SECONDS)).getCause());
+        assertThrows(CityNotFoundException.class, () -> sdk.getCurrentWeather("Lodnon"));
+        verify(apiClient, times(1)).getCoordinatesByCityNameAsync(anyString());
+        verify(apiClient, times(1)).getCoordinatesByCityName(anyString());
+        assertEquals(2, sdk.getNegativeCacheSize());
+
+        // Other errors are not remembered
+        when(apiClient.getCoordinatesByCityName("Paris"))
+                .thenThrow(new WeatherApiException("API error while searching for city: 500"));
+        assertThrows(WeatherApiException.class, () -> sdk.getCurrentWeather("Paris"));
+        assertEquals(2, sdk.getNegativeCacheSize());
+        assertEquals(0, sdk.getCacheSize());
+    }
+
+    @Test
+    void testExpiryPolicy_WithoutExpiration_UsesCacheTtl() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .expiryPolicy((weatherData, previous, receivedAt) -> null)
+                .apiClient(apiClient)
+                .build();
+
+        assertNotNull(sdk.getCurrentWeather("Moscow"));
+        assertNotNull(sdk.getCurrentWeatherAsync("Moscow").get(5, TimeUnit.SECONDS));
+        assertNotNull(sdk.getCurrentWeatherByCoordinates(55.75, 37.62));
+
+        verify(apiClient, times(2)).getCurrentWeatherByCoordinates(anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testExpiryPolicy_DecidesWhenDataIsReloaded() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        List<WeatherCacheEntry> previousEntries = new ArrayList<>();
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .expiryPolicy((weatherData, previous, receivedAt) -> {
+                    previousEntries.add(previous);
+                    // Expire at once on the first load only
+                    return previous == null ? receivedAt : receivedAt.plusSeconds(600);
+                })
+                .apiClient(apiClient)
+                .build();
+
+        sdk.getCurrentWeather("Moscow");
+        sdk.getCurrentWeather("Moscow");
+        sdk.getCurrentWeatherAsync("Moscow").get(5, TimeUnit.SECONDS);
+
+        verify(apiClient, times(2)).getCurrentWeatherByCoordinates(anyDouble(), anyDouble());
+        verify(apiClient, never()).getCurrentWeatherByCoordinatesAsync(anyDouble(), anyDouble());
+        assertEquals(2, previousEntries.size());
+        assertNull(previousEntries.get(0));
+        assertNotNull(previousEntries.get(1));
+    }
+
+    @Test
+    void testGetCacheStats_CountsLookupsAndLoads() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        when(apiClient.getCoordinatesByCityName("Mosow"))
+                .thenThrow(new CityNotFoundException("City not found: Mosow"));
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .cacheCapacity(2)
+                .apiClient(apiClient)
+                .build();
+
+        sdk.getCurrentWeather("Moscow");
+        sdk.getCurrentWeather("moscow");
+        sdk.getCurrentWeatherAsync("Moscow").get(5, TimeUnit.SECONDS);
+        sdk.getCurrentWeatherAsync("London").get(5, TimeUnit.SECONDS);
+        sdk.getCurrentWeather("Paris");
+        assertThrows(CityNotFoundException.class, () -> sdk.getCurrentWeather("Mosow"));
+
+        CacheStats stats = sdk.getCacheStats();
+        assertEquals(2, stats.getHitCount());
+        assertEquals(4, stats.getMissCount());
+        assertEquals(0, stats.getExpirationCount());
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(3, stats.getLoadSuccessCount());
+        assertEquals(1, stats.getLoadFailureCount());
+        assertEquals(4, Arrays.stream(stats.getLoadLatencyHistogram()).sum());
+        assertEquals(2.0 / 6, stats.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void testWarmUp_LoadsCitiesAndReportsFailures() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        when(apiClient.getCoordinatesByCityNameAsync("Mosow"))
+                .thenReturn(CompletableFuture.failedFuture(new CityNotFoundException("City not found: Mosow")));
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .cacheCapacity(100)
+                .warmUpRate(1000)
+                .apiClient(apiClient)
+                .build();
+        sdk.getCurrentWeather("Paris");
+
+        List<String> cities = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            cities.add("City " + i);
+        }
+        cities.addAll(List.of("Paris", "city 0", "Mosow", " "));
+        WarmUpProgress progress = sdk.warmUp(cities, 4);
+
+        assertSame(progress, progress.getCompletion().get(5, TimeUnit.SECONDS));
+        assertEquals(53, progress.getTotalCount());
+        assertEquals(51, progress.getSucceededCount());
+        assertEquals(2, progress.getFailedCount());
+        assertEquals(53, progress.getCompletedCount());
+        assertInstanceOf(CityNotFoundException.class, progress.getFailures().get("Mosow"));
+        assertTrue(progress.getFailures().containsKey(" "));
+        assertEquals(51, sdk.getCacheSize());
+        verify(apiClient, times(50)).getCurrentWeatherByCoordinatesAsync(anyDouble(), anyDouble());
+        assertEquals(1, sdk.getCacheStats().getRequestCount());
+
+        assertEquals(0, sdk.warmUp(List.of(), 4).getCompletion().get(5, TimeUnit.SECONDS).getTotalCount());
+        assertThrows(WeatherApiException.class, () -> sdk.warmUp(null, 4));
+        assertThrows(WeatherApiException.class, () -> sdk.warmUp(cities, 0));
+    }
+
+    @Test
+    void testWarmUp_RespectsRequestRate() throws Exception {
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .cacheCapacity(100)
+                .warmUpRate(10)
+                .apiClient(mockApiClient())
+                .build();
+
+        // 6 cities need 12 requests: 10 leave at once, the rest wait for the next tokens
+        long start = System.nanoTime();
+        WarmUpProgress progress = sdk.warmUp(List.of("A", "B", "C", "D", "E", "F"), 6);
+        progress.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals(6, progress.getSucceededCount());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(150));
+    }
+
+    @Test
+    void testGetCurrentWeatherByCoordinates_NearbyLookupsShareCacheEntry() throws WeatherApiException {
+        WeatherApiClient apiClient = mockApiClient();
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .coordinatePrecision(0.01)
+                .apiClient(apiClient)
+                .build();
+
+        WeatherData first = sdk.getCurrentWeatherByCoordinates(55.7512, 37.6184);
+        WeatherData second = sdk.getCurrentWeatherByCoordinates(55.7488, 37.6211);
+        sdk.getCurrentWeatherByCoordinates(59.9386, 30.3141);
+
+        assertSame(first, second);
+        assertEquals(2, sdk.getCoordinateCacheSize());
+        verify(apiClient).getCurrentWeatherByCoordinates(55.75, 37.62);
+        verify(apiClient, times(2)).getCurrentWeatherByCoordinates(anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testGetCurrentWeatherByCoordinates_WithInvalidCoordinates() throws WeatherApiException {
+        WeatherApiClient apiClient = mockApiClient();
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY).apiClient(apiClient).build();
+
+        assertThrows(WeatherApiException.class, () -> sdk.getCurrentWeatherByCoordinates(91, 0));
+        assertThrows(WeatherApiException.class, () -> sdk.getCurrentWeatherByCoordinates(0, -181));
+        assertThrows(WeatherApiException.class, () -> sdk.getCurrentWeatherByCoordinates(Double.NaN, 0));
+        verifyNoInteractions(apiClient);
+    }
+
+    @Test
+    void testStaleWhileRevalidate_ServesStaleDataAndRefreshesInBackground() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .mode(SdkMode.STALE_WHILE_REVALIDATE)
+                .cacheTtl(Duration.ofSeconds(1))
+                .apiClient(apiClient)
+                .build();
+
+        WeatherData first = sdk.getCurrentWeather("Moscow");
+        Thread.sleep(1100);
+        CountDownLatch refreshGate = new CountDownLatch(1);
+        when(apiClient.getCurrentWeatherByCoordinates(anyDouble(), anyDouble())).thenAnswer(invocation -> {
+            refreshGate.await(5, TimeUnit.SECONDS);
+            return new WeatherData();
+        });
+
+        // Past the soft TTL: the stale data is returned at once, one refresh runs
+        assertSame(first, sdk.getCurrentWeather("Moscow"));
+        assertSame(first, sdk.getCurrentWeather("Moscow"));
+        verify(apiClient, timeout(2000).times(2)).getCurrentWeatherByCoordinates(anyDouble(), anyDouble());
+        refreshGate.countDown();
+
+        WeatherData refreshed = waitForNewData(sdk, "Moscow", first);
+        assertNotSame(first, refreshed);
+        verify(apiClient, times(2)).getCurrentWeatherByCoordinates(anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testStaleWhileRevalidate_BlocksPastHardTtl() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .mode(SdkMode.STALE_WHILE_REVALIDATE)
+                .cacheTtl(Duration.ofSeconds(1))
+                .hardTtl(Duration.ofSeconds(1))
+                .apiClient(apiClient)
+                .build();
+
+        WeatherData first = sdk.getCurrentWeather("Moscow");
+        Thread.sleep(1100);
+
+        assertNotSame(first, sdk.getCurrentWeather("Moscow"));
+    }
+
+    @Test
+    void testCircuitBreakerOpen_ServesExpiredEntry() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .cacheTtl(Duration.ofSeconds(1))
+                .circuitBreakerServesStale(true)
+                .apiClient(apiClient)
+                .build();
+
+        WeatherData moscow = sdk.getCurrentWeather("Moscow");
+        WeatherData cell = sdk.getCurrentWeatherByCoordinates(55.75, 37.62);
+        Thread.sleep(1100);
+        CircuitBreakerOpenException open = new CircuitBreakerOpenException("open");
+        when(apiClient.getCurrentWeatherByCoordinates(anyDouble(), anyDouble())).thenThrow(open);
+        when(apiClient.getCurrentWeatherByCoordinatesAsync(anyDouble(), anyDouble()))
+                .thenReturn(CompletableFuture.failedFuture(open));
+
+        assertSame(moscow, sdk.getCurrentWeather("Moscow"));
+        assertSame(moscow, sdk.getCurrentWeatherAsync("Moscow").get(5, TimeUnit.SECONDS));
+        assertSame(cell, sdk.getCurrentWeatherByCoordinates(55.75, 37.62));
+        assertSame(cell, sdk.getCurrentWeatherByCoordinatesAsync(55.75, 37.62).get(5, TimeUnit.SECONDS));
+
+        // Nothing cached: the breaker error reaches the caller
+        assertThrows(CircuitBreakerOpenException.class, () -> sdk.getCurrentWeather("London"));
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> sdk.getCurrentWeatherAsync("Paris").get(5, TimeUnit.SECONDS));
+        assertSame(open, error.getCause());
+    }
+
+    @Test
+    void testOnDemand_RemovesExpiredEntriesWithoutEvictingLiveOnes() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .cacheCapacity(2)
+                .cacheTtl(Duration.ofSeconds(1))
+                .apiClient(apiClient)
+                .build();
+        sdk.getCurrentWeather("Moscow");
+        Thread.sleep(2500); // past the TTL and the timer wheel's one-second resolution
+
+        WeatherData london = sdk.getCurrentWeather("London");
+        assertEquals(1, sdk.getCacheSize());
+        sdk.getCurrentWeather("Paris");
+        assertEquals(2, sdk.getCacheSize());
+        assertSame(london, sdk.getCurrentWeather("London"));
+        assertEquals(0, sdk.getCacheStats().getEvictionCount());
+        verify(apiClient, times(3)).getCurrentWeatherByCoordinates(anyDouble(), anyDouble());
+
+        // Without circuitBreakerServesStale the expired entry is gone, so the breaker error reaches the caller
+        when(apiClient.getCurrentWeatherByCoordinates(anyDouble(), anyDouble()))
+                .thenThrow(new CircuitBreakerOpenException("open"));
+        assertThrows(CircuitBreakerOpenException.class, () -> sdk.getCurrentWeather("Moscow"));
+    }
+
+    @Test
+    void testCircuitBreakerOpen_OtherErrorsAreNotMasked() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .cacheTtl(Duration.ofSeconds(1))
+                .apiClient(apiClient)
+                .build();
+
+        sdk.getCurrentWeather("Moscow");
+        Thread.sleep(1100);
+        when(apiClient.getCurrentWeatherByCoordinates(anyDouble(), anyDouble()))
+                .thenThrow(new WeatherApiException("OpenWeather server error. Try again later."));
+
+        assertThrows(WeatherApiException.class, () -> sdk.getCurrentWeather("Moscow"));
+        assertEquals(CircuitBreakerState.CLOSED, sdk.getCircuitBreakerState());
+    }
+
+    @Test
+    void testVirtualThreads_RefreshesInBackground() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .mode(SdkMode.STALE_WHILE_REVALIDATE)
+                .cacheTtl(Duration.ofSeconds(1))
+                .virtualThreads(true)
+                .apiClient(apiClient)
+                .build();
+        assertEquals(VirtualThreads.isAvailable(), sdk.isUsingVirtualThreads());
+
+        WeatherData first = sdk.getCurrentWeather("Moscow");
+        Thread.sleep(1100);
+
+        assertSame(first, sdk.getCurrentWeather("Moscow"));
+        assertNotSame(first, waitForNewData(sdk, "Moscow", first));
+        sdk.shutdown();
+    }
+
+    @Test
+    void testBuilder_WithHardTtlShorterThanCacheTtl() {
+        assertThrows(WeatherApiException.class, () -> WeatherSdk.builder(TEST_API_KEY)
+                .cacheTtl(Duration.ofMinutes(10))
+                .hardTtl(Duration.ofMinutes(5))
+                .build());
+    }
+
+    @Test
+    void testSnapshot_RestoresCacheAfterRestart(@TempDir Path tempDir) throws WeatherApiException {
+        Path snapshotFile = tempDir.resolve("weather.snapshot");
+        WeatherApiClient apiClient = mockApiClient();
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .snapshotFile(snapshotFile)
+                .apiClient(apiClient)
+                .build();
+        sdk.getCurrentWeather("Moscow");
+        WeatherSdk.delete(TEST_API_KEY);
+        assertTrue(Files.exists(snapshotFile));
+
+        WeatherApiClient restartedClient = mockApiClient();
+        WeatherSdk restarted = WeatherSdk.builder(TEST_API_KEY)
+                .snapshotFile(snapshotFile)
+                .apiClient(restartedClient)
+                .build();
+
+        assertEquals(1, restarted.getCacheSize());
+        assertEquals(1, restarted.getGeocodingCacheSize());
+        assertNotNull(restarted.getCurrentWeather("Moscow"));
+        verifyNoInteractions(restartedClient);
+    }
+
+    @Test
+    void testGetCurrentWeatherAsync_ChainsGeocodingAndWeather() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        CompletableFuture<WeatherApiClient.GeocodingResult> geocoding = new CompletableFuture<>();
+        when(apiClient.getCoordinatesByCityNameAsync(anyString())).thenReturn(geocoding);
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY).apiClient(apiClient).build();
+
+        CompletableFuture<WeatherData> future = sdk.getCurrentWeatherAsync("Moscow");
+        CompletableFuture<WeatherData> joined = sdk.getCurrentWeatherAsync("moscow");
+        assertFalse(future.isDone());
+
+        geocoding.complete(coordinates());
+        WeatherData weather = future.get(5, TimeUnit.SECONDS);
+        assertSame(weather, joined.get(5, TimeUnit.SECONDS));
+        verify(apiClient).getCurrentWeatherByCoordinatesAsync(55.75, 37.62);
+        verify(apiClient, times(1)).getCoordinatesByCityNameAsync(anyString());
+        verify(apiClient, never()).getCoordinatesByCityName(anyString());
+
+        // Cache hits complete immediately, for blocking callers too
+        CompletableFuture<WeatherData> hit = sdk.getCurrentWeatherAsync("Moscow");
+        assertTrue(hit.isDone());
+        assertSame(weather, hit.join());
+        assertSame(weather, sdk.getCurrentWeather("Moscow"));
+        assertEquals(1, sdk.getGeocodingCacheSize());
+        sdk.shutdown();
+    }
+
+    @Test
+    void testGetCurrentWeatherAsync_CompletesExceptionallyOnFailure() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        WeatherApiException failure = new WeatherApiException("City not found: Nowhere");
+        when(apiClient.getCoordinatesByCityNameAsync(anyString()))
+                .thenReturn(CompletableFuture.failedFuture(failure));
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY).apiClient(apiClient).build();
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> sdk.getCurrentWeatherAsync("Nowhere").get(5, TimeUnit.SECONDS));
+        assertSame(failure, error.getCause());
+        assertInstanceOf(WeatherApiException.class,
+                assertThrows(ExecutionException.class, () -> sdk.getCurrentWeatherAsync(" ").get()).getCause());
+        assertEquals(0, sdk.getCacheSize());
+        sdk.shutdown();
+    }
+
+    @Test
+    void testGetCurrentWeatherByCoordinatesAsync_SharesGridCache() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY).apiClient(apiClient).build();
+
+        WeatherData first = sdk.getCurrentWeatherByCoordinatesAsync(55.7512, 37.6184).get(5, TimeUnit.SECONDS);
+        CompletableFuture<WeatherData> nearby = sdk.getCurrentWeatherByCoordinatesAsync(55.7488, 37.6211);
+
+        assertTrue(nearby.isDone());
+        assertSame(first, nearby.join());
+        assertSame(first, sdk.getCurrentWeatherByCoordinates(55.7512, 37.6184));
+        verify(apiClient).getCurrentWeatherByCoordinatesAsync(55.75, 37.62);
+        assertThrows(ExecutionException.class, () -> sdk.getCurrentWeatherByCoordinatesAsync(91, 0).get());
+        sdk.shutdown();
+    }
+
+    @Test
+    void testPolling_RefreshesCitiesWithinConcurrencyLimit() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(apiClient.getCurrentWeatherByCoordinatesAsync(anyDouble(), anyDouble())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                sleepUninterruptibly(50);
+                inFlight.decrementAndGet();
+                return new WeatherData();
+            });
+        });
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .mode(SdkMode.POLLING)
+                .pollingInterval(Duration.ofMillis(500))
+                .pollingConcurrency(2)
+                .apiClient(apiClient)
+                .build();
+        for (int i = 0; i < 6; i++) {
+            sdk.getCurrentWeather("City " + i);
+        }
+
+        PollingCycleStats cycle = waitForPollingCycle(sdk, 6);
+        assertEquals(6, cycle.getSuccessCount());
+        assertEquals(0, cycle.getFailureCount());
+        assertTrue(cycle.getDuration().toMillis() >= 150, "6 refreshes of 50 ms, 2 at a time");
+        assertTrue(maxInFlight.get() <= 2, "max in flight: " + maxInFlight.get());
+        sdk.shutdown();
+    }
+
+    @Test
+    void testPolling_CountsFailedRefreshes() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        when(apiClient.getCurrentWeatherByCoordinatesAsync(anyDouble(), anyDouble()))
+                .thenReturn(CompletableFuture.failedFuture(new WeatherApiException("OpenWeather server error")));
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .mode(SdkMode.POLLING)
+                .pollingInterval(Duration.ofMillis(200))
+                .apiClient(apiClient)
+                .build();
+        WeatherData cached = sdk.getCurrentWeather("Moscow");
+
+        PollingCycleStats cycle = waitForPollingCycle(sdk, 1);
+        assertEquals(0, cycle.getSuccessCount());
+        assertEquals(1, cycle.getFailureCount());
+        // A failed refresh keeps the previous data
+        assertSame(cached, sdk.getCurrentWeather("Moscow"));
+        sdk.shutdown();
+    }
+
+    @Test
+    void testPolling_CycleDoesNotBlockBackgroundExecutor() throws Exception {
+        WeatherApiClient apiClient = mockApiClient();
+        CompletableFuture<WeatherData> refresh = new CompletableFuture<>();
+        when(apiClient.getCurrentWeatherByCoordinatesAsync(anyDouble(), anyDouble())).thenReturn(refresh);
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                    .mode(SdkMode.POLLING)
+                    .pollingInterval(Duration.ofMillis(100))
+                    .executor(executor)
+                    .apiClient(apiClient)
+                    .build();
+            sdk.getCurrentWeather("Moscow");
+            verify(apiClient, timeout(2000)).getCurrentWeatherByCoordinatesAsync(anyDouble(), anyDouble());
+
+            // Other tasks of the executor run while the refresh is in flight
+            executor.submit(() -> { }).get(1, TimeUnit.SECONDS);
+
+            refresh.complete(new WeatherData());
+            PollingCycleStats cycle = waitForPollingCycle(sdk, 1);
+            assertEquals(1, cycle.getSuccessCount());
+            sdk.shutdown();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testGetCurrentWeatherBulk_DedupesAndReportsPerCityResults() throws WeatherApiException {
+        WeatherApiClient apiClient = mockApiClient();
+        WeatherApiException notFound = new WeatherApiException("City not found: Nowhere");
+        when(apiClient.getCoordinatesByCityNameAsync("Nowhere")).thenReturn(CompletableFuture.failedFuture(notFound));
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY).apiClient(apiClient).build();
+        WeatherData cached = sdk.getCurrentWeather("London");
+
+        Map<String, WeatherLookupResult> results = sdk.getCurrentWeatherBulk(
+                Arrays.asList("Moscow", " moscow ", "London", "Nowhere", "", "Moscow"));
+
+        assertEquals(List.of("Moscow", " moscow ", "London", "Nowhere", ""), new ArrayList<>(results.keySet()));
+        assertTrue(results.get("Moscow").isSuccess());
+        assertSame(results.get("Moscow"), results.get(" moscow "));
+        assertSame(cached, results.get("London").getDataOrThrow());
+        assertSame(notFound, results.get("Nowhere").getError());
+        assertFalse(results.get("").isSuccess());
+        verify(apiClient, times(1)).getCoordinatesByCityNameAsync("Moscow");
+        verify(apiClient, times(1)).getCurrentWeatherByCoordinatesAsync(anyDouble(), anyDouble());
+        assertThrows(WeatherApiException.class, () -> sdk.getCurrentWeatherBulk(null));
+        sdk.shutdown();
+    }
+
+    @Test
+    void testGetCurrentWeatherBulk_LoadsMissesWithinParallelismLimit() throws WeatherApiException {
+        WeatherApiClient apiClient = mockApiClient();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(apiClient.getCurrentWeatherByCoordinatesAsync(anyDouble(), anyDouble())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                sleepUninterruptibly(20);
+                inFlight.decrementAndGet();
+                return new WeatherData();
+            });
+        });
+        WeatherSdk sdk = WeatherSdk.builder(TEST_API_KEY)
+                .cacheCapacity(100)
+                .bulkParallelism(4)
+                .apiClient(apiClient)
+                .build();
+        List<String> cities = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            cities.add("City " + i);
+        }
+
+        Map<String, WeatherLookupResult> results = sdk.getCurrentWeatherBulk(cities);
+
+        assertEquals(20, results.size());
+        assertTrue(results.values().stream().allMatch(WeatherLookupResult::isSuccess));
+        assertTrue(maxInFlight.get() > 1, "misses should be loaded concurrently");
+        assertTrue(maxInFlight.get() <= 4, "max in flight: " + maxInFlight.get());
+        assertEquals(20, sdk.getCacheSize());
+        sdk.shutdown();
+    }
+
+    private static PollingCycleStats waitForPollingCycle(WeatherSdk sdk, int cities) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        PollingCycleStats cycle = sdk.getLastPollingCycle();
+        while ((cycle == null || cycle.getSuccessCount() + cycle.getFailureCount() < cities)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            cycle = sdk.getLastPollingCycle();
+        }
+        assertNotNull(cycle);
+        return cycle;
+    }
+
+    private static void sleepUninterruptibly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static WeatherData waitForNewData(WeatherSdk sdk, String city, WeatherData old) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        WeatherData current = sdk.getCurrentWeather(city);
+        while (current == old && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            current = sdk.getCurrentWeather(city);
+        }
+        return current;
+    }
+
+    private static WeatherApiClient mockApiClient() throws WeatherApiException {
+        WeatherApiClient apiClient = mock(WeatherApiClient.class);
+        when(apiClient.getCoordinatesByCityName(anyString())).thenReturn(coordinates());
+        when(apiClient.getCurrentWeatherByCoordinates(anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> new WeatherData());
+        when(apiClient.getCoordinatesByCityNameAsync(anyString()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(coordinates()));
+        when(apiClient.getCurrentWeatherByCoordinatesAsync(anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(new WeatherData()));
+        return apiClient;
+    }
+
+    private static WeatherApiClient.GeocodingResult coordinates() {
+        WeatherApiClient.GeocodingResult result = new WeatherApiClient.GeocodingResult();
+        result.name = "Moscow";
+        result.lat = 55.75;
+        result.lon = 37.62;
+        return result;
+    }
 }
 
@@ -0,0 +1,78 @@
+package com.example.cache;
+
+import com.example.model.WeatherData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveExpiryPolicyTest {
+
+    private static final Instant NOW = Instant.ofEpochSecond(1_700_000_000);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExpiryPolicy policy = ExpiryPolicy.adaptive(
+            Duration.ofMinutes(10), Duration.ofMinutes(1), Duration.ofMinutes(30));
+
+    @Test
+    void testExpiresAfterNextExpectedObservation() throws Exception {
+        WeatherData observedThreeMinutesAgo = weather(NOW.minusSeconds(180), 20.0, 3.0, "Clear");
+
+        assertEquals(NOW.plusSeconds(420), policy.expiresAt(observedThreeMinutesAgo, null, NOW));
+    }
+
+    @Test
+    void testOldObservationExpiresAfterMinimumTtl() throws Exception {
+        WeatherData observedAnHourAgo = weather(NOW.minusSeconds(3600), 20.0, 3.0, "Clear");
+
+        assertEquals(NOW.plusSeconds(60), policy.expiresAt(observedAnHourAgo, null, NOW));
+        assertEquals(NOW.plusSeconds(600), policy.expiresAt(new WeatherData(), null, NOW));
+    }
+
+    @Test
+    void testStableReadingsStretchLifetime() throws Exception {
+        WeatherData reading = weather(NOW.minusSeconds(3600), 20.0, 3.0, "Clear");
+        WeatherCacheEntry previous = new WeatherCacheEntry("Moscow", reading, NOW.minusSeconds(120), NOW);
+
+        // Identical observation: the previous 2-minute lifetime doubles
+        assertEquals(NOW.plusSeconds(240), policy.expiresAt(reading, previous, NOW));
+
+        // New but barely changed observation
+        WeatherData similar = weather(NOW, 20.3, 3.5, "Clear");
+        previous = new WeatherCacheEntry("Moscow", reading, NOW.minusSeconds(1200), NOW);
+        assertEquals(NOW.plusSeconds(1800), policy.expiresAt(similar, previous, NOW));
+    }
+
+    @Test
+    void testVolatileReadingsShortenLifetime() throws Exception {
+        WeatherData before = weather(NOW.minusSeconds(600), 20.0, 3.0, "Clear");
+        WeatherCacheEntry previous = new WeatherCacheEntry("Moscow", before, NOW.minusSeconds(600), NOW);
+
+        WeatherData storm = weather(NOW, 16.0, 12.0, "Thunderstorm");
+        assertEquals(NOW.plusSeconds(300), policy.expiresAt(storm, previous, NOW));
+
+        // A moderate change keeps the cadence-based lifetime
+        WeatherData moderate = weather(NOW, 21.0, 3.0, "Clear");
+        assertEquals(NOW.plusSeconds(600), policy.expiresAt(moderate, previous, NOW));
+    }
+
+    @Test
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ExpiryPolicy.adaptive(Duration.ZERO, Duration.ofMinutes(1), Duration.ofMinutes(30)));
+        assertThrows(IllegalArgumentException.class,
+                () -> ExpiryPolicy.adaptive(Duration.ofMinutes(10), Duration.ZERO, Duration.ofMinutes(30)));
+        assertThrows(IllegalArgumentException.class,
+                () -> ExpiryPolicy.adaptive(Duration.ofMinutes(10), Duration.ofMinutes(5), Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> ExpiryPolicy.fixed(Duration.ZERO));
+        assertEquals(NOW.plusSeconds(60), ExpiryPolicy.fixed(Duration.ofMinutes(1)).expiresAt(new WeatherData(), null, NOW));
+    }
+
+    private WeatherData weather(Instant observedAt, double temp, double windSpeed, String condition) throws Exception {
+        String json = "{\"weather\":[{\"main\":\"" + condition + "\"}],\"main\":{\"temp\":" + temp + "},"
+                + "\"wind\":{\"speed\":" + windSpeed + "},\"dt\":" + observedAt.getEpochSecond() + "}";
+        return objectMapper.readValue(json, WeatherData.class);
+    }
+}
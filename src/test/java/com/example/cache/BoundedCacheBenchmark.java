@@ -0,0 +1,75 @@
+package com.example.cache;
+
+import com.example.model.WeatherData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cache hit latency for small and large caches.
+ *
+ * <p>Run with:</p>
+ * <pre>{@code
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main BoundedCacheBenchmark"
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoundedCacheBenchmark {
+    private static final int KEY_MASK = (1 << 16) - 1;
+
+    @Param({"10", "100000", "500000"})
+    int size;
+
+    BoundedCache<String, WeatherCacheEntry> cache;
+    String[] keys;
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int index = ThreadLocalRandom.current().nextInt();
+    }
+
+    @Setup
+    public void setUp() {
+        cache = new BoundedCache<>(size);
+        WeatherData weatherData = new WeatherData();
+        for (int i = 0; i < size; i++) {
+            String city = "city-" + i;
+            cache.put(city, new WeatherCacheEntry(city, weatherData, Instant.now()));
+        }
+        keys = new String[KEY_MASK + 1];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "city-" + random.nextInt(size);
+        }
+    }
+
+    @Benchmark
+    public WeatherCacheEntry getHit(ThreadState state) {
+        return cache.get(keys[state.index++ & KEY_MASK]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public WeatherCacheEntry getHit_4Threads(ThreadState state) {
+        return cache.get(keys[state.index++ & KEY_MASK]);
+    }
+}
@@ -0,0 +1,397 @@
+package com.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    @Test
+    void testConstructor_WithInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<String, String>(0));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<String, String>(-1));
+    }
+
+    @Test
+    void testPutAndGet() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        assertNull(cache.put("moscow", "a"));
+        assertEquals("a", cache.get("moscow"));
+        assertEquals("a", cache.peek("moscow"));
+        assertNull(cache.get("london"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testPut_ReplacesExistingValue() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2);
+        cache.put("moscow", "a");
+        assertEquals("a", cache.put("moscow", "b"));
+        assertEquals("b", cache.get("moscow"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testEviction_RemovesLeastRecentlyUsed() {
+        BoundedCache<String, String> cache = new BoundedCache<>(3);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+
+        // Touch "a" so that "b" becomes the eldest entry
+        cache.get("a");
+        cache.put("d", "4");
+
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.evictionCount());
+        assertNull(cache.peek("b"));
+        assertNotNull(cache.peek("a"));
+        assertNotNull(cache.peek("c"));
+        assertNotNull(cache.peek("d"));
+    }
+
+    @Test
+    void testEviction_AfterManyReads() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        // More reads than a single read buffer can hold
+        for (int i = 0; i < 100; i++) {
+            cache.get("a");
+        }
+        cache.put("c", "3");
+
+        assertNotNull(cache.peek("a"));
+        assertNull(cache.peek("b"));
+    }
+
+    @Test
+    void testPeek_DoesNotAffectOrder() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.peek("a");
+        cache.put("c", "3");
+
+        assertNull(cache.peek("a"));
+        assertNotNull(cache.peek("b"));
+    }
+
+    @Test
+    void testRemoveAndClear() {
+        BoundedCache<String, String> cache = new BoundedCache<>(3);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+
+        assertEquals("1", cache.remove("a"));
+        assertNull(cache.remove("a"));
+        assertEquals(1, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        cache.cleanUp();
+        cache.put("c", "3");
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    void testKeySetAndForEach() {
+        BoundedCache<String, String> cache = new BoundedCache<>(3);
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        assertEquals(2, cache.keySet().size());
+        assertTrue(cache.keySet().contains("a"));
+        assertThrows(UnsupportedOperationException.class, () -> cache.keySet().remove("a"));
+
+        List<String> values = new ArrayList<>();
+        cache.forEach((key, value) -> values.add(value));
+        assertEquals(2, values.size());
+    }
+
+    @Test
+    void testExpireAfterWrite() {
+        AtomicLong time = new AtomicLong();
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofSeconds(10), time::get);
+        cache.put("a", "1");
+
+        time.set(TimeUnit.SECONDS.toNanos(9));
+        assertEquals("1", cache.get("a"));
+
+        time.set(TimeUnit.SECONDS.toNanos(10));
+        assertNull(cache.get("a"));
+        assertNull(cache.peek("a"));
+        List<String> values = new ArrayList<>();
+        cache.forEach((key, value) -> values.add(value));
+        assertTrue(values.isEmpty());
+
+        // Writing again restarts the entry's lifetime
+        assertNull(cache.put("a", "2"));
+        time.set(TimeUnit.SECONDS.toNanos(19));
+        assertEquals("2", cache.get("a"));
+    }
+
+    @Test
+    void testPut_WithPerEntryExpiration() {
+        AtomicLong time = new AtomicLong();
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofSeconds(10), time::get);
+        cache.put("a", "1", 30, TimeUnit.SECONDS);
+        cache.put("b", "2");
+
+        time.set(TimeUnit.SECONDS.toNanos(20));
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+
+        time.set(TimeUnit.SECONDS.toNanos(30));
+        assertNull(cache.get("a"));
+        assertThrows(IllegalArgumentException.class, () -> cache.put("c", "3", 0, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testCleanUp_RemovesExpiredEntries() {
+        AtomicLong time = new AtomicLong();
+        BoundedCache<String, String> cache =
+                new BoundedCache<>(100, Duration.ofMinutes(5), EvictionPolicy.W_TINY_LFU, time::get);
+        for (int i = 0; i < 50; i++) {
+            cache.put("short" + i, "s", 10, TimeUnit.SECONDS);
+            cache.put("long" + i, "l");
+        }
+        assertEquals(100, cache.size());
+
+        time.set(TimeUnit.SECONDS.toNanos(15));
+        cache.cleanUp();
+        assertEquals(50, cache.size());
+        assertNull(cache.peek("short0"));
+        assertEquals("l", cache.peek("long0"));
+
+        // Removing an entry takes it off the timer wheel
+        cache.remove("long0");
+        time.set(TimeUnit.MINUTES.toNanos(6));
+        cache.cleanUp();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.evictionCount());
+
+        // Expired entries no longer count against the maximum size
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a"));
+    }
+
+    @Test
+    void testGet_RemovesExpiredEntriesWithoutWrites() {
+        AtomicLong time = new AtomicLong();
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofMinutes(5), time::get);
+        cache.put("short", "s", 10, TimeUnit.SECONDS);
+        cache.put("long", "l");
+
+        time.set(TimeUnit.SECONDS.toNanos(15));
+        assertNull(cache.get("short"));
+        assertEquals(1, cache.size());
+        assertEquals("l", cache.get("long"));
+        assertEquals(0, cache.evictionCount());
+    }
+
+    @Test
+    void testMaximumWeight_EvictsUntilTotalFits() {
+        BoundedCache<String, String> cache =
+                new BoundedCache<>(10, (key, value) -> value.length(), null, EvictionPolicy.LRU);
+        cache.put("a", "xxxx");
+        cache.put("b", "xxxx");
+        assertEquals(8, cache.weightedSize());
+
+        cache.put("c", "xxxxxx");
+        assertNull(cache.peek("a"));
+        assertEquals(2, cache.size());
+        assertEquals(10, cache.weightedSize());
+        assertEquals(1, cache.evictionCount());
+
+        // A heavier value for an existing key evicts as well
+        cache.put("b", "xxxxxxx");
+        assertNull(cache.peek("c"));
+        assertEquals("xxxxxxx", cache.peek("b"));
+        assertEquals(7, cache.weightedSize());
+
+        cache.remove("b");
+        assertEquals(0, cache.weightedSize());
+
+        // An entry heavier than the whole cache is not kept
+        cache.put("d", "xxxxxxxxxxxx");
+        assertNull(cache.peek("d"));
+        assertEquals(0, cache.weightedSize());
+        assertTrue(cache.isWeighted());
+        assertEquals(10, cache.getMaximumWeight());
+        assertEquals(Long.MAX_VALUE, cache.getMaximumSize());
+    }
+
+    @Test
+    void testMaximumWeight_TinyLfuStaysWithinBudget() {
+        AtomicLong time = new AtomicLong();
+        Weigher<Integer, Integer> weigher = (key, value) -> value;
+        BoundedCache<Integer, Integer> cache =
+                new BoundedCache<>(1_000, weigher, Duration.ofSeconds(10), EvictionPolicy.W_TINY_LFU, time::get);
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(500);
+            if (random.nextInt(10) == 0) {
+                cache.remove(key);
+            } else if (random.nextBoolean()) {
+                cache.get(key);
+            } else {
+                cache.put(key, 1 + random.nextInt(50));
+            }
+            time.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        cache.cleanUp();
+
+        long[] total = new long[1];
+        cache.forEach((key, value) -> total[0] += value);
+        assertEquals(total[0], cache.weightedSize());
+        assertTrue(cache.weightedSize() <= 1_000);
+    }
+
+    @Test
+    void testMaximumWeight_WithInvalidSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BoundedCache<String, String>(0, (key, value) -> 1, null, EvictionPolicy.LRU));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BoundedCache<String, String>(10, null, null, EvictionPolicy.LRU));
+        BoundedCache<String, String> cache = new BoundedCache<>(10, (key, value) -> -1, null, EvictionPolicy.LRU);
+        assertThrows(IllegalArgumentException.class, () -> cache.put("a", "1"));
+    }
+
+    @Test
+    void testConstructor_WithInvalidExpiration() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<String, String>(10, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BoundedCache<String, String>(10, Duration.ofSeconds(-1)));
+    }
+
+    @Test
+    void testTinyLfu_KeepsFrequentEntriesDuringScan() {
+        BoundedCache<String, String> cache = new BoundedCache<>(100, null, EvictionPolicy.W_TINY_LFU);
+        for (int i = 0; i < 100; i++) {
+            cache.put("hot-" + i, "v");
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 100; i++) {
+                cache.get("hot-" + i);
+            }
+            cache.cleanUp();
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("scan-" + i, "v");
+        }
+
+        assertEquals(100, cache.size());
+        int hotEntries = 0;
+        for (int i = 0; i < 100; i++) {
+            if (cache.peek("hot-" + i) != null) {
+                hotEntries++;
+            }
+        }
+        assertTrue(hotEntries >= 95, "hot entries left: " + hotEntries);
+        assertEquals(1_000, cache.evictionCount());
+    }
+
+    @Test
+    void testTinyLfu_RemoveAndClear() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, null, EvictionPolicy.W_TINY_LFU);
+        for (int i = 0; i < 20; i++) {
+            cache.put("k" + i, "v" + i);
+            cache.get("k" + i);
+        }
+        assertEquals(10, cache.size());
+
+        cache.keySet().forEach(key -> assertNotNull(cache.remove(key)));
+        assertEquals(0, cache.size());
+        for (int i = 0; i < 20; i++) {
+            cache.put("k" + i, "v" + i);
+        }
+        assertEquals(10, cache.size());
+        cache.clear();
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testTinyLfu_BeatsLruOnScanHeavyTrace() {
+        int[] trace = HitRatioSimulation.syntheticTrace(7);
+
+        double lru = HitRatioSimulation.hitRatio(EvictionPolicy.LRU, HitRatioSimulation.DEFAULT_CACHE_SIZE, trace);
+        double tinyLfu = HitRatioSimulation.hitRatio(EvictionPolicy.W_TINY_LFU,
+                HitRatioSimulation.DEFAULT_CACHE_SIZE, trace);
+
+        assertTrue(tinyLfu > lru + 0.05, "LRU " + lru + ", W-TinyLFU " + tinyLfu);
+    }
+
+    @Test
+    void testConcurrentAccess_RespectsMaximumSize() throws Exception {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(50);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 10_000; i++) {
+                    int key = (i * 31 + seed) % 200;
+                    if (cache.get(key) == null) {
+                        cache.put(key, key);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertTrue(cache.size() <= 50);
+        cache.forEach((key, value) -> assertEquals(key, value));
+    }
+
+    @Test
+    void testConcurrentPut_PublishesValueTogetherWithExpiration() throws Exception {
+        AtomicLong time = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofMinutes(1), time::get);
+        cache.put("a", "live");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicBoolean done = new AtomicBoolean();
+        Future<?> writer = executor.submit(() -> {
+            try {
+                for (int i = 0; i < 200_000; i++) {
+                    cache.put("a", "expired", TimeUnit.MINUTES.toNanos(2)); // written two minutes ago
+                    cache.put("a", "live");
+                }
+            } finally {
+                done.set(true);
+            }
+        });
+        // A reader must never see the expired value with the live value's write time
+        while (!done.get()) {
+            assertNotEquals("expired", cache.get("a"));
+            assertNotEquals("expired", cache.peek("a"));
+        }
+        writer.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.cache;
+
+import com.example.internal.WeatherApiClient.GeocodingResult;
+import com.example.model.WeatherData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheSnapshotTest {
+
+    private static final String MOSCOW_JSON = "{\"weather\":[{\"main\":\"Clouds\",\"description\":\"облачно\"}],"
+            + "\"main\":{\"temp\":-5.2,\"feels_like\":-9.1},\"visibility\":10000,\"wind\":{\"speed\":3.5},"
+            + "\"dt\":1700000000,\"sys\":{\"sunrise\":1699990000,\"sunset\":1700020000},"
+            + "\"timezone\":10800,\"name\":\"Moscow\"}";
+
+    @TempDir
+    Path tempDir;
+
+    private ObjectMapper objectMapper;
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        file = tempDir.resolve("snapshots").resolve("weather.snapshot");
+    }
+
+    @Test
+    void testWriteAndLoad_RoundTrip() throws IOException {
+        BoundedCache<String, WeatherCacheEntry> weatherCache = new BoundedCache<>(10);
+        Instant timestamp = Instant.now().minusSeconds(60);
+        weatherCache.put("moscow", new WeatherCacheEntry("Moscow", moscow(), timestamp));
+        GeocodingCache geocodingCache = new GeocodingCache(10, Duration.ofDays(7));
+        geocodingCache.put("moscow", coordinates());
+
+        assertEquals(2, CacheSnapshot.write(file, weatherCache, geocodingCache, objectMapper));
+
+        BoundedCache<String, WeatherCacheEntry> restoredWeather = new BoundedCache<>(10);
+        GeocodingCache restoredGeocoding = new GeocodingCache(10, Duration.ofDays(7));
+        assertEquals(2, CacheSnapshot.load(file, restoredWeather, 600, restoredGeocoding, objectMapper));
+
+        WeatherCacheEntry entry = restoredWeather.get("moscow");
+        assertNotNull(entry);
+        assertEquals("Moscow", entry.getCityName());
+        assertEquals(timestamp.toEpochMilli(), entry.getTimestamp().toEpochMilli());
+        WeatherData weatherData = entry.getWeatherData();
+        assertEquals("Moscow", weatherData.getName());
+        assertEquals(-5.2, weatherData.getTemperature().getTemp());
+        assertEquals(-9.1, weatherData.getTemperature().getFeelsLike());
+        assertEquals("облачно", weatherData.getWeather()[0].getDescription());
+        assertEquals(3.5, weatherData.getWind().getSpeed());
+        assertEquals(1700000000L, weatherData.getDatetime());
+        assertEquals(10800, weatherData.getTimezone());
+
+        GeocodingResult result = restoredGeocoding.get("moscow");
+        assertNotNull(result);
+        assertEquals("Moscow", result.name);
+        assertEquals("RU", result.country);
+        assertEquals(55.75, result.lat);
+        assertEquals(37.62, result.lon);
+    }
+
+    @Test
+    void testLoad_SkipsExpiredEntries() throws IOException {
+        BoundedCache<String, WeatherCacheEntry> weatherCache = new BoundedCache<>(10);
+        weatherCache.put("moscow", new WeatherCacheEntry("Moscow", moscow(), Instant.now().minusSeconds(900)));
+        weatherCache.put("london", new WeatherCacheEntry("London", moscow(), Instant.now()));
+        GeocodingCache geocodingCache = new GeocodingCache(10, Duration.ofDays(7));
+        geocodingCache.put("moscow", coordinates());
+        CacheSnapshot.write(file, weatherCache, geocodingCache, objectMapper);
+
+        BoundedCache<String, WeatherCacheEntry> restoredWeather = new BoundedCache<>(10);
+        GeocodingCache restoredGeocoding = new GeocodingCache(10, Duration.ofMillis(1));
+        assertEquals(1, CacheSnapshot.load(file, restoredWeather, 600, restoredGeocoding, objectMapper));
+
+        assertNull(restoredWeather.get("moscow"));
+        assertNotNull(restoredWeather.get("london"));
+        assertEquals(0, restoredGeocoding.size());
+    }
+
+    @Test
+    void testLoad_WhenFileDoesNotExist() throws IOException {
+        assertEquals(0, CacheSnapshot.load(file, new BoundedCache<>(10), 600,
+                new GeocodingCache(10, Duration.ofDays(7)), objectMapper));
+    }
+
+    @Test
+    void testLoad_WithCorruptFile() throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> CacheSnapshot.load(file, new BoundedCache<>(10), 600,
+                new GeocodingCache(10, Duration.ofDays(7)), objectMapper));
+
+        BoundedCache<String, WeatherCacheEntry> weatherCache = new BoundedCache<>(10);
+        weatherCache.put("moscow", new WeatherCacheEntry("Moscow", moscow(), Instant.now()));
+        CacheSnapshot.write(file, weatherCache, new GeocodingCache(10, Duration.ofDays(7)), objectMapper);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> CacheSnapshot.load(file, new BoundedCache<>(10), 600,
+                new GeocodingCache(10, Duration.ofDays(7)), objectMapper));
+    }
+
+    private WeatherData moscow() throws IOException {
+        return objectMapper.readValue(MOSCOW_JSON, WeatherData.class);
+    }
+
+    private static GeocodingResult coordinates() {
+        GeocodingResult result = new GeocodingResult();
+        result.name = "Moscow";
+        result.country = "RU";
+        result.lat = 55.75;
+        result.lon = 37.62;
+        return result;
+    }
+}
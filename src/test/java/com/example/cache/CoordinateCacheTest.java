@@ -0,0 +1,75 @@
+package com.example.cache;
+
+import com.example.model.WeatherData;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoordinateCacheTest {
+
+    @Test
+    void testKey_NearbyCoordinatesShareCell() {
+        CoordinateCache cache = new CoordinateCache(CoordinateCache.DEFAULT_CAPACITY, 0.01);
+
+        assertEquals(cache.key(55.7512, 37.6184), cache.key(55.7488, 37.6211));
+        assertNotEquals(cache.key(55.7512, 37.6184), cache.key(55.7612, 37.6184));
+        assertNotEquals(cache.key(55.7512, 37.6184), cache.key(55.7512, 37.6284));
+    }
+
+    @Test
+    void testKey_RoundTripsCellCenter() {
+        CoordinateCache cache = new CoordinateCache(CoordinateCache.DEFAULT_CAPACITY, 0.01);
+
+        long key = cache.key(-33.8688, -151.2093);
+        assertEquals(-33.87, cache.latitude(key), 1e-9);
+        assertEquals(-151.21, cache.longitude(key), 1e-9);
+
+        long extreme = cache.key(-90, 180);
+        assertEquals(-90, cache.latitude(extreme), 1e-9);
+        assertEquals(180, cache.longitude(extreme), 1e-9);
+    }
+
+    @Test
+    void testKey_FinestPrecision() {
+        CoordinateCache cache = new CoordinateCache(10, CoordinateCache.MIN_PRECISION);
+
+        long key = cache.key(89.999999, -179.999999);
+        assertEquals(89.999999, cache.latitude(key), 1e-9);
+        assertEquals(-179.999999, cache.longitude(key), 1e-9);
+    }
+
+    @Test
+    void testPutAndGet() {
+        CoordinateCache cache = new CoordinateCache(10, 0.1);
+        WeatherCacheEntry entry = new WeatherCacheEntry(new WeatherData(), Instant.now());
+
+        cache.put(cache.key(51.51, -0.13), entry);
+
+        assertSame(entry, cache.get(cache.key(51.49, -0.12)));
+        assertNull(cache.get(cache.key(48.85, 2.35)));
+        assertEquals(1, cache.size());
+        assertEquals(0.1, cache.getPrecision());
+    }
+
+    @Test
+    void testGet_DistinguishesCellsWithSameHash() {
+        CoordinateCache cache = new CoordinateCache(10, 1);
+        WeatherCacheEntry entry = new WeatherCacheEntry(new WeatherData(), Instant.now());
+        long key = cache.key(1, 0);
+        long collision = cache.key(0, 1);
+        cache.put(key, entry);
+
+        assertEquals(Long.hashCode(key), Long.hashCode(collision));
+        assertSame(entry, cache.get(key));
+        assertNull(cache.get(collision));
+    }
+
+    @Test
+    void testConstructor_WithInvalidPrecision() {
+        assertThrows(IllegalArgumentException.class, () -> new CoordinateCache(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new CoordinateCache(10, 2));
+        assertThrows(IllegalArgumentException.class, () -> new CoordinateCache(10, Double.NaN));
+    }
+}
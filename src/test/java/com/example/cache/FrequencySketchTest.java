@@ -0,0 +1,47 @@
+package com.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrequencySketchTest {
+
+    @Test
+    void testFrequency_CountsIncrements() {
+        FrequencySketch sketch = new FrequencySketch(1_000);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("moscow");
+        }
+        sketch.increment("london");
+
+        assertEquals(5, sketch.frequency("moscow"));
+        assertEquals(1, sketch.frequency("london"));
+        assertEquals(0, sketch.frequency("paris"));
+    }
+
+    @Test
+    void testFrequency_SaturatesAtMaximum() {
+        FrequencySketch sketch = new FrequencySketch(1_000);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("moscow");
+        }
+
+        assertEquals(FrequencySketch.MAX_FREQUENCY, sketch.frequency("moscow"));
+    }
+
+    @Test
+    void testReset_HalvesCounters() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 8; i++) {
+            sketch.increment("moscow");
+        }
+        sketch.reset();
+        assertEquals(4, sketch.frequency("moscow"));
+
+        // Enough other increments trigger the periodic reset by themselves
+        for (int i = 0; i < 10 * 16; i++) {
+            sketch.increment("key-" + i);
+        }
+        assertTrue(sketch.frequency("moscow") <= 2);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.cache;
+
+import com.example.internal.WeatherApiClient.GeocodingResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeocodingCacheTest {
+
+    @Test
+    void testPutAndGet() {
+        GeocodingCache cache = new GeocodingCache(GeocodingCache.DEFAULT_CAPACITY, GeocodingCache.DEFAULT_TTL);
+        GeocodingResult result = new GeocodingResult();
+        result.name = "Moscow";
+        result.lat = 55.75;
+        result.lon = 37.62;
+
+        cache.put("moscow", result);
+
+        assertSame(result, cache.get("moscow"));
+        assertNull(cache.get("london"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testCapacityIsRespected() {
+        GeocodingCache cache = new GeocodingCache(2, Duration.ofDays(1));
+        cache.put("moscow", new GeocodingResult());
+        cache.put("london", new GeocodingResult());
+        cache.put("paris", new GeocodingResult());
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("moscow"));
+    }
+
+    @Test
+    void testConstructor_WithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new GeocodingCache(0, Duration.ofDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> new GeocodingCache(10, Duration.ZERO));
+    }
+}
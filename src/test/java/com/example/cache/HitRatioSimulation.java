@@ -0,0 +1,96 @@
+package com.example.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Replays an access trace against {@link BoundedCache} with each {@link EvictionPolicy}
+ * and prints the hit ratios.
+ *
+ * <p>Without arguments, a synthetic trace is used: Zipf-distributed lookups of 10,000 cities
+ * interrupted every 50,000 lookups by a scan of 5,000 cities that are requested only once,
+ * like a nightly report. A trace file holds one key per line. Run with:</p>
+ * <pre>{@code
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath com.example.cache.HitRatioSimulation [cacheSize [traceFile]]"
+ * }</pre>
+ */
+public final class HitRatioSimulation {
+    static final int DEFAULT_CACHE_SIZE = 1_000;
+    private static final int CITIES = 10_000;
+    private static final int LOOKUPS = 500_000;
+    private static final int SCAN_INTERVAL = 50_000;
+    private static final int SCAN_LENGTH = 5_000;
+    private static final double ZIPF_EXPONENT = 0.9;
+
+    private HitRatioSimulation() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int cacheSize = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CACHE_SIZE;
+        int[] trace = args.length > 1 ? readTrace(Path.of(args[1])) : syntheticTrace(42);
+        System.out.printf("%d lookups, cache size %d%n", trace.length, cacheSize);
+        for (EvictionPolicy policy : EvictionPolicy.values()) {
+            System.out.printf("%-10s hit ratio %.2f%%%n", policy, 100 * hitRatio(policy, cacheSize, trace));
+        }
+    }
+
+    /**
+     * Replays the trace, loading every missing key into the cache.
+     */
+    static double hitRatio(EvictionPolicy policy, long cacheSize, int[] trace) {
+        BoundedCache<Integer, Boolean> cache = new BoundedCache<>(cacheSize, null, policy);
+        int hits = 0;
+        for (int key : trace) {
+            if (cache.get(key) != null) {
+                hits++;
+            } else {
+                cache.put(key, Boolean.TRUE);
+            }
+        }
+        return (double) hits / trace.length;
+    }
+
+    /**
+     * Creates the synthetic trace described in the class comment.
+     */
+    static int[] syntheticTrace(long seed) {
+        double[] cumulative = new double[CITIES];
+        double sum = 0;
+        for (int i = 0; i < CITIES; i++) {
+            sum += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+            cumulative[i] = sum;
+        }
+        Random random = new Random(seed);
+        int[] trace = new int[LOOKUPS];
+        int nextOneOff = CITIES;
+        for (int i = 0; i < LOOKUPS; ) {
+            if (i > 0 && i % SCAN_INTERVAL == 0) {
+                for (int j = 0; j < SCAN_LENGTH && i < LOOKUPS; j++) {
+                    trace[i++] = nextOneOff++;
+                }
+            }
+            if (i < LOOKUPS) {
+                int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                trace[i++] = index >= 0 ? index : -index - 1;
+            }
+        }
+        return trace;
+    }
+
+    private static int[] readTrace(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        Map<String, Integer> ids = new HashMap<>();
+        return lines.stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty())
+                .mapToInt(line -> ids.computeIfAbsent(line, key -> ids.size()))
+                .toArray();
+    }
+}
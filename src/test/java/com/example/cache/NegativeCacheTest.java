@@ -0,0 +1,58 @@
+package com.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NegativeCacheTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    @Test
+    void testFilterRemembersNamesAfterExactEntryExpires() {
+        NegativeCache cache = new NegativeCache(100, Duration.ofMinutes(10), 1000, Duration.ofDays(1), ticker::get);
+        cache.markUnknown("mosow");
+
+        assertTrue(cache.isUnknown("mosow"));
+        assertFalse(cache.isUnknown("moscow"));
+        assertEquals(1, cache.size());
+
+        ticker.addAndGet(TimeUnit.MINUTES.toNanos(11));
+        assertTrue(cache.isUnknown("mosow"));
+    }
+
+    @Test
+    void testFilterForgetsNamesAfterTwoRetentionPeriods() {
+        NegativeCache cache = new NegativeCache(100, Duration.ofMinutes(10), 1000, Duration.ofDays(1), ticker::get);
+        cache.markUnknown("mosow");
+
+        ticker.addAndGet(TimeUnit.HOURS.toNanos(25));
+        assertTrue(cache.isUnknown("mosow"));
+
+        ticker.addAndGet(TimeUnit.HOURS.toNanos(25));
+        assertFalse(cache.isUnknown("mosow"));
+    }
+
+    @Test
+    void testWithoutFilter_OnlyExactCacheIsUsed() {
+        NegativeCache cache = new NegativeCache(100, Duration.ofMinutes(10), 0, Duration.ofDays(1), ticker::get);
+        cache.markUnknown("mosow");
+        assertTrue(cache.isUnknown("mosow"));
+
+        ticker.addAndGet(TimeUnit.MINUTES.toNanos(11));
+        assertFalse(cache.isUnknown("mosow"));
+    }
+
+    @Test
+    void testConstructor_WithInvalidArguments() {
+        Duration day = Duration.ofDays(1);
+        assertThrows(IllegalArgumentException.class, () -> new NegativeCache(0, day, 10, day));
+        assertThrows(IllegalArgumentException.class, () -> new NegativeCache(10, Duration.ZERO, 10, day));
+        assertThrows(IllegalArgumentException.class, () -> new NegativeCache(10, day, -1, day));
+        assertThrows(IllegalArgumentException.class, () -> new NegativeCache(10, day, 10, Duration.ZERO));
+    }
+}
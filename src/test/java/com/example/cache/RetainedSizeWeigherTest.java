@@ -0,0 +1,54 @@
+package com.example.cache;
+
+import com.example.model.WeatherData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetainedSizeWeigherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Weigher<Object, WeatherCacheEntry> weigher = Weigher.retainedBytes();
+
+    @Test
+    void testWeigh_GrowsWithRetainedData() throws Exception {
+        int empty = weigh(new WeatherData());
+        int full = weigh(weatherData("{\"weather\":[{\"main\":\"Clouds\",\"description\":\"overcast clouds\"}],"
+                + "\"main\":{\"temp\":269.6,\"feels_like\":267.2},\"visibility\":10000,"
+                + "\"wind\":{\"speed\":4.2},\"dt\":1675744800,"
+                + "\"sys\":{\"sunrise\":1675751262,\"sunset\":1675787560},\"timezone\":10800,"
+                + "\"name\":\"Moscow\"}"));
+
+        assertTrue(empty > 100, "empty entry: " + empty);
+        assertTrue(full > empty + 200, "full entry: " + full);
+        assertTrue(full < 2_000, "full entry: " + full);
+    }
+
+    @Test
+    void testWeigh_CountsEveryWeatherCondition() throws Exception {
+        int one = weigh(weatherData("{\"weather\":[{\"main\":\"Clouds\",\"description\":\"overcast clouds\"}]}"));
+        int two = weigh(weatherData("{\"weather\":[{\"main\":\"Clouds\",\"description\":\"overcast clouds\"},"
+                + "{\"main\":\"Snow\",\"description\":\"light snow\"}]}"));
+
+        assertTrue(two > one + 24 + 2 * 40, "one: " + one + ", two: " + two);
+    }
+
+    @Test
+    void testSizeOf_CountsNonLatinStringsTwice() {
+        assertEquals(0, RetainedSizeWeigher.sizeOf((String) null));
+        assertEquals(24 + 16, RetainedSizeWeigher.sizeOf(""));
+        assertEquals(24 + 24, RetainedSizeWeigher.sizeOf("Moscow"));
+        assertEquals(24 + 32, RetainedSizeWeigher.sizeOf("Москва"));
+    }
+
+    private int weigh(WeatherData weatherData) {
+        return weigher.weigh("moscow", new WeatherCacheEntry("Moscow", weatherData, Instant.now()));
+    }
+
+    private WeatherData weatherData(String json) throws Exception {
+        return objectMapper.readValue(json, WeatherData.class);
+    }
+}
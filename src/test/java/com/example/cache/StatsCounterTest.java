@@ -0,0 +1,92 @@
+package com.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsCounterTest {
+
+    @Test
+    void testSnapshot_ReportsRecordedCounts() {
+        StatsCounter counter = new StatsCounter();
+        counter.recordHit();
+        counter.recordHit();
+        counter.recordHit();
+        counter.recordMiss();
+        counter.recordExpiration();
+        counter.recordLoadSuccess(TimeUnit.MICROSECONDS.toNanos(500));
+        counter.recordLoadFailure(TimeUnit.MILLISECONDS.toNanos(3));
+
+        CacheStats stats = counter.snapshot(7);
+
+        assertEquals(3, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getExpirationCount());
+        assertEquals(7, stats.getEvictionCount());
+        assertEquals(1, stats.getLoadSuccessCount());
+        assertEquals(1, stats.getLoadFailureCount());
+        assertEquals(4, stats.getRequestCount());
+        assertEquals(0.75, stats.getHitRate(), 1e-9);
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(1750), stats.getAverageLoadPenaltyNanos(), 1e-9);
+
+        long[] histogram = stats.getLoadLatencyHistogram();
+        assertEquals(CacheStats.LATENCY_BUCKETS, histogram.length);
+        assertEquals(1, histogram[0]); // < 1 ms
+        assertEquals(1, histogram[2]); // [2, 4) ms
+    }
+
+    @Test
+    void testHistogramBuckets() {
+        assertEquals(0, CacheStats.bucketOf(0));
+        assertEquals(0, CacheStats.bucketOf(999_999));
+        assertEquals(1, CacheStats.bucketOf(1_000_000));
+        assertEquals(10, CacheStats.bucketOf(TimeUnit.MILLISECONDS.toNanos(1023)));
+        assertEquals(CacheStats.LATENCY_BUCKETS - 1, CacheStats.bucketOf(TimeUnit.HOURS.toNanos(1)));
+        assertEquals(1, CacheStats.getBucketUpperBoundMillis(0));
+        assertEquals(1024, CacheStats.getBucketUpperBoundMillis(10));
+        assertEquals(Long.MAX_VALUE, CacheStats.getBucketUpperBoundMillis(CacheStats.LATENCY_BUCKETS - 1));
+    }
+
+    @Test
+    void testEmptySnapshot() {
+        CacheStats stats = new StatsCounter().snapshot(0);
+
+        assertEquals(0, stats.getRequestCount());
+        assertEquals(1.0, stats.getHitRate());
+        assertEquals(0.0, stats.getAverageLoadPenaltyNanos());
+    }
+
+    @Test
+    void testConcurrentRecording() throws Exception {
+        StatsCounter counter = new StatsCounter();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        counter.recordHit();
+                        counter.recordLoadSuccess(i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        CacheStats stats = counter.snapshot(0);
+        assertEquals(80_000, stats.getHitCount());
+        assertEquals(80_000, stats.getLoadSuccessCount());
+        assertEquals(80_000, stats.getLoadLatencyHistogram()[0]);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.cache;
+
+import com.example.cache.BoundedCache.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    private static Node<String, String> node(String key, long writeTime, long expireAfterNanos) {
+        return new Node<>(key, key, writeTime, expireAfterNanos);
+    }
+
+    private static List<String> advance(TimerWheel<String, String> wheel, long now) {
+        List<String> expired = new ArrayList<>();
+        wheel.advance(now, node -> expired.add(node.key));
+        return expired;
+    }
+
+    @Test
+    void testAdvance_ExpiresOnlyDueEntries() {
+        TimerWheel<String, String> wheel = new TimerWheel<>(0);
+        wheel.schedule(node("a", 0, TimeUnit.SECONDS.toNanos(5)));
+        wheel.schedule(node("b", 0, TimeUnit.SECONDS.toNanos(30)));
+
+        assertTrue(advance(wheel, TimeUnit.SECONDS.toNanos(3)).isEmpty());
+        assertEquals(List.of("a"), advance(wheel, TimeUnit.SECONDS.toNanos(10)));
+        assertEquals(List.of("b"), advance(wheel, TimeUnit.SECONDS.toNanos(31)));
+        assertTrue(advance(wheel, TimeUnit.SECONDS.toNanos(60)).isEmpty());
+    }
+
+    @Test
+    void testAdvance_CascadesFromCoarserWheels() {
+        TimerWheel<String, String> wheel = new TimerWheel<>(0);
+        wheel.schedule(node("minutes", 0, TimeUnit.MINUTES.toNanos(10)));
+        wheel.schedule(node("hours", 0, TimeUnit.HOURS.toNanos(5)));
+        wheel.schedule(node("days", 0, TimeUnit.DAYS.toNanos(3)));
+
+        // Step through time so that entries move down to finer wheels before they expire
+        List<String> expired = new ArrayList<>();
+        for (long now = 0; now <= TimeUnit.DAYS.toNanos(4); now += TimeUnit.SECONDS.toNanos(30)) {
+            long time = now;
+            wheel.advance(now, node -> {
+                assertTrue(time >= node.getExpirationTime(), node.key + " expired early");
+                assertTrue(time - node.getExpirationTime() < TimeUnit.MINUTES.toNanos(2), node.key + " expired late");
+                expired.add(node.key);
+            });
+        }
+        assertEquals(List.of("minutes", "hours", "days"), expired);
+    }
+
+    @Test
+    void testAdvance_AfterLongPause() {
+        TimerWheel<String, String> wheel = new TimerWheel<>(0);
+        wheel.schedule(node("a", 0, TimeUnit.SECONDS.toNanos(1)));
+        wheel.schedule(node("b", 0, TimeUnit.HOURS.toNanos(2)));
+        wheel.schedule(node("c", 0, TimeUnit.DAYS.toNanos(30)));
+
+        List<String> expired = advance(wheel, TimeUnit.DAYS.toNanos(1));
+        assertEquals(2, expired.size());
+        assertTrue(expired.containsAll(List.of("a", "b")));
+        assertEquals(List.of("c"), advance(wheel, TimeUnit.DAYS.toNanos(31)));
+    }
+
+    @Test
+    void testDeschedule() {
+        TimerWheel<String, String> wheel = new TimerWheel<>(0);
+        Node<String, String> a = node("a", 0, TimeUnit.SECONDS.toNanos(5));
+        wheel.schedule(a);
+        wheel.schedule(node("b", 0, TimeUnit.SECONDS.toNanos(5)));
+        wheel.deschedule(a);
+        wheel.deschedule(a); // no-op when not scheduled
+
+        assertEquals(List.of("b"), advance(wheel, TimeUnit.SECONDS.toNanos(10)));
+    }
+
+    @Test
+    void testReschedule_MovesDeadline() {
+        TimerWheel<String, String> wheel = new TimerWheel<>(0);
+        Node<String, String> a = node("a", 0, TimeUnit.SECONDS.toNanos(5));
+        wheel.schedule(a);
+        a.current = new BoundedCache.TimedValue<>("a", TimeUnit.SECONDS.toNanos(4), TimeUnit.SECONDS.toNanos(5));
+        wheel.reschedule(a);
+
+        assertTrue(advance(wheel, TimeUnit.SECONDS.toNanos(6)).isEmpty());
+        assertEquals(List.of("a"), advance(wheel, TimeUnit.SECONDS.toNanos(10)));
+    }
+}
@@ -28,6 +28,16 @@ class WeatherCacheEntryTest {
         assertEquals(timestamp, entry.getTimestamp());
     }
 
+    @Test
+    void testConstructor_WithCityName() {
+        WeatherCacheEntry entry = new WeatherCacheEntry("Moscow", weatherData, timestamp);
+
+        assertEquals("Moscow", entry.getCityName());
+        assertEquals(weatherData, entry.getWeatherData());
+        assertEquals(timestamp, entry.getTimestamp());
+        assertNull(new WeatherCacheEntry(weatherData, timestamp).getCityName());
+    }
+
     @Test
     void testGetWeatherData() {
         WeatherCacheEntry entry = new WeatherCacheEntry(weatherData, timestamp);
@@ -82,5 +92,20 @@ class WeatherCacheEntryTest {
         // With TTL 1 minute, data should be expired
         assertFalse(entry.isUpToDate(60));
     }
-}
 
+    @Test
+    void testIsFresh_UsesExpirationTime() {
+        WeatherCacheEntry expiring = new WeatherCacheEntry("Moscow", weatherData,
+                Instant.now().minusSeconds(3600), Instant.now().plusSeconds(60));
+        assertTrue(expiring.isFresh(600));
+
+        WeatherCacheEntry expired = new WeatherCacheEntry("Moscow", weatherData,
+                Instant.now(), Instant.now().minusSeconds(1));
+        assertFalse(expired.isFresh(600));
+        assertTrue(expired.isUpToDate(600));
+
+        // Without an expiration time the TTL applies
+        assertTrue(new WeatherCacheEntry(weatherData, Instant.now()).isFresh(600));
+        assertNull(new WeatherCacheEntry(weatherData, Instant.now()).getExpiresAt());
+    }
+}
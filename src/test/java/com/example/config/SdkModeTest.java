@@ -10,15 +10,17 @@ class SdkModeTest {
     void testEnumValues() {
         // Check that enum contains expected values
         SdkMode[] values = SdkMode.values();
-        assertEquals(2, values.length);
+        assertEquals(3, values.length);
         assertTrue(Enum.valueOf(SdkMode.class, "ON_DEMAND") == SdkMode.ON_DEMAND);
         assertTrue(Enum.valueOf(SdkMode.class, "POLLING") == SdkMode.POLLING);
+        assertTrue(Enum.valueOf(SdkMode.class, "STALE_WHILE_REVALIDATE") == SdkMode.STALE_WHILE_REVALIDATE);
     }
 
     @Test
     void testValueOf() {
         assertEquals(SdkMode.ON_DEMAND, SdkMode.valueOf("ON_DEMAND"));
         assertEquals(SdkMode.POLLING, SdkMode.valueOf("POLLING"));
+        assertEquals(SdkMode.STALE_WHILE_REVALIDATE, SdkMode.valueOf("STALE_WHILE_REVALIDATE"));
     }
 
     @Test
@@ -0,0 +1,86 @@
+package com.example.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares running many concurrent blocking loads on a bounded platform thread pool
+ * with running each on its own virtual thread.
+ *
+ * <p>Each load blocks through {@link Futures#await} on a response that arrives after
+ * {@code latencyMillis}, like a blocking {@code getCurrentWeather} cache miss. On Java 17-20
+ * the {@code virtual} variant falls back to a cached platform thread pool, see
+ * {@link VirtualThreads}; run on Java 21+ to compare virtual threads:</p>
+ * <pre>{@code
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main BlockingLoadBenchmark"
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockingLoadBenchmark {
+    private static final int POOL_THREADS = 64;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"1000"})
+    public int loads;
+
+    @Param({"20"})
+    public int latencyMillis;
+
+    private ExecutorService executor;
+    private Executor network;
+
+    @Setup
+    public void setUp() {
+        executor = threads.equals("virtual")
+                ? VirtualThreads.newThreadPerTaskExecutor("Bench-Virtual")
+                : Executors.newFixedThreadPool(POOL_THREADS);
+        network = CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void concurrentBlockingLoads() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(loads);
+        for (int i = 0; i < loads; i++) {
+            executor.execute(() -> {
+                try {
+                    Futures.await(CompletableFuture.supplyAsync(() -> "weather", network));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.internal;
+
+import com.example.model.CircuitBreakerState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    @Test
+    void testOpensWhenFailureRateReachesThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(0.5, 10, Duration.ofSeconds(30), ticker::get);
+
+        // Below the minimum number of calls nothing opens the breaker
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(breaker.tryAcquire());
+        }
+        assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+
+        breaker.onFailure(breaker.tryAcquire());
+        assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void testStaysClosedBelowThresholdInSlidingWindow() {
+        CircuitBreaker breaker = new CircuitBreaker(0.5, 4, Duration.ofSeconds(30), ticker::get);
+
+        // Old failures slide out of the window
+        breaker.onFailure(breaker.tryAcquire());
+        breaker.onSuccess(breaker.tryAcquire());
+        breaker.onSuccess(breaker.tryAcquire());
+        breaker.onSuccess(breaker.tryAcquire());
+        breaker.onSuccess(breaker.tryAcquire());
+        breaker.onFailure(breaker.tryAcquire());
+        assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+
+        breaker.onFailure(breaker.tryAcquire());
+        assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenProbesCloseOnSuccess() {
+        CircuitBreaker breaker = openBreaker();
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertEquals(CircuitBreakerState.HALF_OPEN, breaker.getState());
+
+        long[] probes = new long[CircuitBreaker.HALF_OPEN_PROBES];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = breaker.tryAcquire();
+            assertNotEquals(CircuitBreaker.REJECTED, probes[i]);
+        }
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+
+        for (long probe : probes) {
+            breaker.onSuccess(probe);
+        }
+        assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+
+        // The window starts empty after closing
+        breaker.onFailure(breaker.tryAcquire());
+        assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenProbeFailureReopens() {
+        CircuitBreaker breaker = openBreaker();
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        long probe = breaker.tryAcquire();
+        long ignored = breaker.tryAcquire();
+        breaker.onIgnored(ignored);
+        breaker.onFailure(probe);
+
+        assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void testIgnoresOutcomesFromBeforeStateChange() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 2, Duration.ofSeconds(30), ticker::get);
+        long early = breaker.tryAcquire();
+        breaker.onFailure(breaker.tryAcquire());
+        assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        breaker.tryAcquire();
+        breaker.onFailure(early); // admitted while closed, must not fail the probe
+
+        assertEquals(CircuitBreakerState.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void testConstructor_WithInvalidParameters() {
+        Duration second = Duration.ofSeconds(1);
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(0, 10, second));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(1.1, 10, second));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(Double.NaN, 10, second));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(0.5, 0, second));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(0.5, 10, Duration.ZERO));
+    }
+
+    private CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker(0.5, 4, Duration.ofSeconds(30), ticker::get);
+        breaker.onFailure(breaker.tryAcquire());
+        breaker.onFailure(breaker.tryAcquire());
+        assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+        return breaker;
+    }
+}
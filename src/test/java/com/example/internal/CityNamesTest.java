@@ -0,0 +1,48 @@
+package com.example.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CityNamesTest {
+
+    @Test
+    void testIsBlank() {
+        assertTrue(CityNames.isBlank(null));
+        assertTrue(CityNames.isBlank(""));
+        assertTrue(CityNames.isBlank(" \t\n"));
+        assertFalse(CityNames.isBlank(" a "));
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("moscow", CityNames.normalize("Moscow"));
+        assertEquals("new york", CityNames.normalize("  NEW York\t"));
+        assertEquals("москва", CityNames.normalize(" Москва "));
+    }
+
+    @Test
+    void testLookupKey_MatchesNormalizedName() {
+        for (String cityName : new String[] {"Moscow", "  NEW York\t", " Москва ", "x"}) {
+            Object key = CityNames.lookupKey(cityName);
+            String normalized = CityNames.normalize(cityName);
+            assertEquals(normalized.hashCode(), key.hashCode());
+            assertTrue(key.equals(normalized));
+        }
+        assertFalse(CityNames.lookupKey("Moscow").equals("moscow2"));
+        assertFalse(CityNames.lookupKey("Moscow").equals("london"));
+    }
+
+    @Test
+    void testLookupKey_FindsEntryInMap() {
+        ConcurrentHashMap<String, Integer> map = new ConcurrentHashMap<>();
+        map.put(CityNames.normalize("London"), 1);
+        map.put(CityNames.normalize("Paris"), 2);
+
+        assertEquals(1, map.get(CityNames.lookupKey(" LONDON ")));
+        assertEquals(2, map.get(CityNames.lookupKey("paris")));
+        assertNull(map.get(CityNames.lookupKey("Berlin")));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.internal;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgingPolicyTest {
+
+    @Test
+    void testHedgeDelay_IsPercentileOfRecentLatencies() {
+        HedgingPolicy policy = new HedgingPolicy(90, 0.1);
+        for (int i = 1; i < HedgingPolicy.MIN_SAMPLES; i++) {
+            policy.recordLatency(i);
+        }
+        assertEquals(-1, policy.onRequest());
+
+        policy.recordLatency(HedgingPolicy.MIN_SAMPLES);
+        assertEquals(18, policy.getHedgeDelayNanos());
+
+        // Old samples slide out of the window
+        for (int i = 0; i < HedgingPolicy.SAMPLE_SIZE; i++) {
+            policy.recordLatency(1000);
+        }
+        assertEquals(1000, policy.getHedgeDelayNanos());
+    }
+
+    @Test
+    void testBudget_AccruesPerRequestUpToCap() {
+        HedgingPolicy policy = new HedgingPolicy(95, 0.25);
+        assertFalse(policy.tryAcquireHedge());
+
+        for (int i = 0; i < 4; i++) {
+            policy.onRequest();
+        }
+        assertTrue(policy.tryAcquireHedge());
+        assertFalse(policy.tryAcquireHedge());
+
+        for (int i = 0; i < 1000; i++) {
+            policy.onRequest();
+        }
+        int hedges = 0;
+        while (policy.tryAcquireHedge()) {
+            hedges++;
+        }
+        assertEquals((int) HedgingPolicy.MAX_CREDITS, hedges);
+    }
+
+    @Test
+    void testConstructor_WithInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new HedgingPolicy(0, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> new HedgingPolicy(100, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> new HedgingPolicy(95, 0));
+        assertThrows(IllegalArgumentException.class, () -> new HedgingPolicy(95, 1.5));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.internal;
+
+import com.example.internal.WeatherApiClient.GeocodingResult;
+import com.example.model.WeatherData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing API responses decoded to a String first (as {@code BodyHandlers.ofString()}
+ * does) with parsing the raw bytes through a reused {@link ObjectReader}.
+ *
+ * <p>Run with the GC profiler to see allocation per operation:</p>
+ * <pre>{@code
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main JsonParsingBenchmark -prof gc"
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonParsingBenchmark {
+    // A typical /data/2.5/weather response with lang=ru
+    private static final String WEATHER_JSON = "{\"coord\":{\"lon\":37.6156,\"lat\":55.7522},"
+            + "\"weather\":[{\"id\":804,\"main\":\"Clouds\",\"description\":\"пасмурно\",\"icon\":\"04n\"}],"
+            + "\"base\":\"stations\",\"main\":{\"temp\":-5.2,\"feels_like\":-9.1,\"temp_min\":-6.0,"
+            + "\"temp_max\":-4.4,\"pressure\":1021,\"humidity\":86,\"sea_level\":1021,\"grnd_level\":1002},"
+            + "\"visibility\":10000,\"wind\":{\"speed\":3.5,\"deg\":210,\"gust\":8.1},"
+            + "\"clouds\":{\"all\":100},\"dt\":1700000000,\"sys\":{\"type\":2,\"id\":2000314,"
+            + "\"country\":\"RU\",\"sunrise\":1699990000,\"sunset\":1700020000},\"timezone\":10800,"
+            + "\"id\":524901,\"name\":\"Москва\",\"cod\":200}";
+    private static final String GEOCODING_JSON = "[{\"name\":\"Moscow\",\"local_names\":{\"ru\":\"Москва\","
+            + "\"en\":\"Moscow\",\"de\":\"Moskau\",\"fr\":\"Moscou\"},\"lat\":55.7504461,\"lon\":37.6174943,"
+            + "\"country\":\"RU\",\"state\":\"Moscow\"}]";
+
+    private ObjectMapper objectMapper;
+    private ObjectReader weatherReader;
+    private ObjectReader geocodingReader;
+    private byte[] weatherBytes;
+    private byte[] geocodingBytes;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        weatherReader = objectMapper.readerFor(WeatherData.class);
+        geocodingReader = objectMapper.readerFor(GeocodingResult[].class);
+        weatherBytes = WEATHER_JSON.getBytes(StandardCharsets.UTF_8);
+        geocodingBytes = GEOCODING_JSON.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public WeatherData weather_String() throws IOException {
+        return objectMapper.readValue(new String(weatherBytes, StandardCharsets.UTF_8), WeatherData.class);
+    }
+
+    @Benchmark
+    public WeatherData weather_Bytes() throws IOException {
+        return weatherReader.readValue(weatherBytes);
+    }
+
+    @Benchmark
+    public GeocodingResult[] geocoding_String() throws IOException {
+        return objectMapper.readValue(new String(geocodingBytes, StandardCharsets.UTF_8), GeocodingResult[].class);
+    }
+
+    @Benchmark
+    public GeocodingResult[] geocoding_Bytes() throws IOException {
+        return geocodingReader.readValue(geocodingBytes);
+    }
+}
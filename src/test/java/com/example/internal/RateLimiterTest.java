@@ -0,0 +1,78 @@
+package com.example.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    @Test
+    void testReserve_AllowsBurstThenQueuesAtTargetRate() {
+        RateLimiter limiter = new RateLimiter(2, 2, Duration.ofSeconds(10), ticker::get);
+
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        // Queued requests leave every 500 ms
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), limiter.reserve());
+        assertEquals(-2.0, limiter.getAvailableTokens(), 1e-9);
+    }
+
+    @Test
+    void testReserve_RefillsOverTimeUpToBurst() {
+        RateLimiter limiter = new RateLimiter(2, 2, Duration.ZERO, ticker::get);
+        limiter.reserve();
+        limiter.reserve();
+        assertEquals(0.0, limiter.getAvailableTokens(), 1e-9);
+
+        ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(1.0, limiter.getAvailableTokens(), 1e-9);
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(2.0, limiter.getAvailableTokens(), 1e-9);
+    }
+
+    @Test
+    void testReserve_RejectsWhenWaitExceedsMaximum() {
+        RateLimiter limiter = new RateLimiter(1, 1, Duration.ofSeconds(1), ticker::get);
+
+        assertEquals(0, limiter.reserve());
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.reserve());
+        assertEquals(RateLimiter.REJECTED, limiter.reserve());
+        // A rejected request does not take a token
+        assertEquals(-1.0, limiter.getAvailableTokens(), 1e-9);
+    }
+
+    @Test
+    void testReserve_RejectsWhenWaitExceedsTimeout() {
+        RateLimiter limiter = new RateLimiter(1, 1, Duration.ofSeconds(10), ticker::get);
+
+        assertEquals(0, limiter.reserve(0));
+        assertEquals(RateLimiter.REJECTED, limiter.reserve(TimeUnit.MILLISECONDS.toNanos(999)));
+        assertEquals(0.0, limiter.getAvailableTokens(), 1e-9);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.reserve(TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    @Test
+    void testReserve_WithZeroMaxWaitRejectsExcess() {
+        RateLimiter limiter = new RateLimiter(5, 1, Duration.ZERO, ticker::get);
+
+        assertEquals(0, limiter.reserve());
+        assertEquals(RateLimiter.REJECTED, limiter.reserve());
+        ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(0, limiter.reserve());
+    }
+
+    @Test
+    void testConstructor_WithInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(Double.NaN, 1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(1, 0, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(1, 1, Duration.ofSeconds(-1)));
+    }
+}
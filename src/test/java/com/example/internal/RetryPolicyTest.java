@@ -0,0 +1,66 @@
+package com.example.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyTest {
+
+    @Test
+    void testIsRetryable_TransientStatusesAndIoErrors() {
+        assertTrue(RetryPolicy.isRetryable(429));
+        assertTrue(RetryPolicy.isRetryable(500));
+        assertTrue(RetryPolicy.isRetryable(502));
+        assertTrue(RetryPolicy.isRetryable(503));
+        assertTrue(RetryPolicy.isRetryable(504));
+        assertFalse(RetryPolicy.isRetryable(400));
+        assertFalse(RetryPolicy.isRetryable(401));
+        assertFalse(RetryPolicy.isRetryable(404));
+        assertFalse(RetryPolicy.isRetryable(501));
+
+        assertTrue(RetryPolicy.isRetryable(new IOException("Connection reset")));
+        assertTrue(RetryPolicy.isRetryable(new HttpTimeoutException("request timed out")));
+        assertFalse(RetryPolicy.isRetryable(new IllegalStateException()));
+    }
+
+    @Test
+    void testBackoff_IsJitteredWithinCappedExponentialBound() {
+        RetryPolicy policy = new RetryPolicy(10, Duration.ofMillis(100), Duration.ofSeconds(1), Duration.ofMinutes(1));
+
+        for (int retry = 0; retry < 100; retry++) {
+            long bound = TimeUnit.MILLISECONDS.toNanos(Math.min(1000, 100L << Math.min(retry, 10)));
+            for (int i = 0; i < 50; i++) {
+                long backoff = policy.backoffNanos(retry);
+                assertTrue(backoff >= 0 && backoff <= bound, "retry " + retry + ": " + backoff);
+            }
+        }
+    }
+
+    @Test
+    void testParseRetryAfter_SecondsAndHttpDate() {
+        long now = 1_700_000_000_000L; // Tue, 14 Nov 2023 22:13:20 GMT
+
+        assertEquals(TimeUnit.SECONDS.toNanos(120), RetryPolicy.parseRetryAfter("120", now));
+        assertEquals(0, RetryPolicy.parseRetryAfter("0", now));
+        assertEquals(TimeUnit.SECONDS.toNanos(40),
+                RetryPolicy.parseRetryAfter("Tue, 14 Nov 2023 22:14:00 GMT", now));
+        assertEquals(0, RetryPolicy.parseRetryAfter("Tue, 14 Nov 2023 22:00:00 GMT", now));
+        assertEquals(RetryPolicy.NO_RETRY_AFTER, RetryPolicy.parseRetryAfter(null, now));
+        assertEquals(RetryPolicy.NO_RETRY_AFTER, RetryPolicy.parseRetryAfter("-5", now));
+        assertEquals(RetryPolicy.NO_RETRY_AFTER, RetryPolicy.parseRetryAfter("soon", now));
+    }
+
+    @Test
+    void testConstructor_WithInvalidParameters() {
+        Duration second = Duration.ofSeconds(1);
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(-1, second, second, second));
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(1, Duration.ZERO, second, second));
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(1, second, Duration.ofMillis(1), second));
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(1, second, second, Duration.ZERO));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.internal;
+
+import com.example.WeatherSdk;
+import com.example.config.SdkMode;
+import com.example.exception.WeatherApiException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedTransportTest {
+
+    @Test
+    void testAcquire_ReturnsSameTransportUntilLastRelease() {
+        SharedTransport first = SharedTransport.acquire();
+        SharedTransport second = SharedTransport.acquire();
+
+        assertSame(first, second);
+        assertSame(first.getHttpClient(), second.getHttpClient());
+        assertSame(first.getObjectMapper(), second.getObjectMapper());
+        assertEquals(2, SharedTransport.getReferenceCount());
+
+        first.release();
+        assertFalse(first.isReleased());
+        second.release();
+        assertTrue(first.isReleased());
+        assertEquals(0, SharedTransport.getReferenceCount());
+    }
+
+    @Test
+    void testAcquire_AfterLastReleaseCreatesNewTransport() {
+        SharedTransport transport = SharedTransport.acquire();
+        transport.release();
+
+        SharedTransport next = SharedTransport.acquire();
+        assertNotSame(transport, next);
+        assertNotSame(transport.getHttpClient(), next.getHttpClient());
+        // Releasing a stopped transport again does not affect the new one
+        transport.release();
+        assertEquals(1, SharedTransport.getReferenceCount());
+        next.release();
+        assertEquals(0, SharedTransport.getReferenceCount());
+    }
+
+    @Test
+    @Timeout(30)
+    void testRelease_ClientStillSendsRequests() throws Exception {
+        SharedTransport transport = SharedTransport.acquire();
+        transport.release();
+        assertTrue(transport.isReleased());
+
+        // Nothing listens on port 1: the request fails with a connection error, not a rejected task
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:1/")).build();
+        assertThrows(IOException.class,
+                () -> transport.getHttpClient().send(request, HttpResponse.BodyHandlers.ofString()));
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> transport.getHttpClient().sendAsync(request, HttpResponse.BodyHandlers.ofString()).get());
+        assertInstanceOf(IOException.class, e.getCause());
+    }
+
+    @Test
+    void testSdkInstances_ShareTransportUntilDeleted() throws WeatherApiException {
+        WeatherSdk.create("transport-key-1", SdkMode.ON_DEMAND);
+        WeatherSdk.create("transport-key-2", SdkMode.ON_DEMAND);
+        assertEquals(2, SharedTransport.getReferenceCount());
+
+        WeatherSdk.delete("transport-key-1");
+        WeatherSdk.delete("transport-key-2");
+        // Deleting twice must not release twice
+        WeatherSdk.delete("transport-key-2");
+        assertEquals(0, SharedTransport.getReferenceCount());
+    }
+}
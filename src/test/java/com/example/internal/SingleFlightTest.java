@@ -0,0 +1,150 @@
+package com.example.internal;
+
+import com.example.exception.WeatherApiException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void testExecute_ReturnsLoadedValue() throws WeatherApiException {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        assertEquals("value", singleFlight.execute("key", () -> "value"));
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Test
+    void testExecute_PropagatesFailureAndReleasesKey() throws WeatherApiException {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        WeatherApiException failure = new WeatherApiException("City not found: Nowhere");
+
+        WeatherApiException thrown = assertThrows(WeatherApiException.class,
+                () -> singleFlight.execute("key", () -> { throw failure; }));
+        assertSame(failure, thrown);
+        assertEquals(0, singleFlight.size());
+        assertEquals("retry", singleFlight.execute("key", () -> "retry"));
+    }
+
+    @Test
+    void testExecute_CoalescesConcurrentLoads() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.execute("moscow", () -> {
+            loads.incrementAndGet();
+            loaderStarted.countDown();
+            awaitUninterruptibly(release);
+            return "weather";
+        })));
+        assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < callers; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("moscow", () -> {
+                loads.incrementAndGet();
+                return "duplicate";
+            })));
+        }
+        // Give waiters time to join the in-flight load
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("weather", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void testExecute_WaitersReceiveSameFailure() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        WeatherApiException failure = new WeatherApiException("Error while getting coordinates");
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Future<String> leader = executor.submit(() -> singleFlight.execute("moscow", () -> {
+            loaderStarted.countDown();
+            awaitUninterruptibly(release);
+            throw failure;
+        }));
+        assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+        Future<String> waiter = executor.submit(() -> singleFlight.execute("moscow", () -> "unused"));
+        Thread.sleep(100);
+        release.countDown();
+
+        ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException waiterError = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertSame(failure, leaderError.getCause());
+        assertSame(failure, waiterError.getCause());
+        executor.shutdown();
+    }
+
+    @Test
+    void testExecuteAsync_CoalescesLoadsUntilCompletion() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> response = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.executeAsync("moscow", () -> {
+            loads.incrementAndGet();
+            return response;
+        });
+        CompletableFuture<String> second = singleFlight.executeAsync("moscow", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("duplicate");
+        });
+        assertEquals(1, singleFlight.size());
+        assertFalse(first.isDone());
+
+        response.complete("weather");
+        assertEquals("weather", first.get(5, TimeUnit.SECONDS));
+        assertEquals("weather", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Test
+    void testExecuteAsync_BlockingCallerJoinsAsyncLoad() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        WeatherApiException failure = new WeatherApiException("Error while getting coordinates");
+        CompletableFuture<String> response = new CompletableFuture<>();
+        CompletableFuture<String> leader = singleFlight.executeAsync("moscow", () -> response);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        Future<String> waiter = executor.submit(() -> singleFlight.execute("moscow", () -> "unused"));
+        Thread.sleep(100);
+        response.completeExceptionally(failure);
+
+        ExecutionException waiterError = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertSame(failure, waiterError.getCause());
+        assertSame(failure, assertThrows(ExecutionException.class, leader::get).getCause());
+        assertEquals("retry", singleFlight.execute("moscow", () -> "retry"));
+        executor.shutdown();
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
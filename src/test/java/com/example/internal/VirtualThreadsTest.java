@@ -0,0 +1,37 @@
+package com.example.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadsTest {
+
+    @Test
+    void testIsAvailable_MatchesRuntimeVersion() {
+        assertEquals(Runtime.version().feature() >= 21, VirtualThreads.isAvailable());
+    }
+
+    @Test
+    void testNewThreadFactory_NamesThreads() {
+        Thread thread = VirtualThreads.newThreadFactory("Test-Worker").newThread(() -> { });
+
+        assertTrue(thread.getName().startsWith("Test-Worker-"), thread.getName());
+        assertTrue(thread.isDaemon());
+    }
+
+    @Test
+    void testNewThreadPerTaskExecutor_RunsTasks() throws Exception {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("Test-Task");
+        try {
+            Future<String> name = executor.submit(() -> Thread.currentThread().getName());
+            assertTrue(name.get(5, TimeUnit.SECONDS).startsWith("Test-Task-"));
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+}
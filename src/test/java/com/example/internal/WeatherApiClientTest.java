@@ -0,0 +1,339 @@
+package com.example.internal;
+
+import com.example.exception.CircuitBreakerOpenException;
+import com.example.exception.WeatherApiException;
+import com.example.model.CircuitBreakerState;
+import com.example.model.WeatherData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WeatherApiClientTest {
+
+    private static final String WEATHER_JSON = "{\"weather\":[{\"main\":\"Clouds\",\"description\":\"облачно\"}],"
+            + "\"main\":{\"temp\":-5.2},\"dt\":1700000000,\"name\":\"Moscow\"}";
+
+    private HttpClient httpClient;
+
+    @BeforeEach
+    void setUp() {
+        httpClient = mock(HttpClient.class);
+    }
+
+    @Test
+    void testGetCurrentWeatherByCoordinates_ParsesResponse() throws WeatherApiException {
+        respondWith(200, WEATHER_JSON);
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper());
+
+        WeatherData weather = client.getCurrentWeatherByCoordinates(55.75, 37.62);
+
+        assertEquals("Moscow", weather.getName());
+        assertEquals("облачно", weather.getWeather()[0].getDescription());
+    }
+
+    @Test
+    void testGetCurrentWeatherByCoordinates_MapsErrorStatus() throws WeatherApiException {
+        respondWith(401, "{\"cod\":401}");
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper());
+
+        WeatherApiException error = assertThrows(WeatherApiException.class,
+                () -> client.getCurrentWeatherByCoordinates(55.75, 37.62));
+        assertEquals("Invalid API key. Check your key.", error.getMessage());
+    }
+
+    @Test
+    void testRateLimiter_RejectsRequestsOverTheLimit() throws WeatherApiException {
+        respondWith(200, WEATHER_JSON);
+        RateLimiter rateLimiter = new RateLimiter(0.1, 1, Duration.ZERO);
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper(), rateLimiter,
+                RetryPolicy.NONE, null, null);
+
+        assertNotNull(client.getCurrentWeatherByCoordinates(55.75, 37.62));
+        WeatherApiException error = assertThrows(WeatherApiException.class,
+                () -> client.getCurrentWeatherByCoordinates(55.75, 37.62));
+        assertTrue(error.getMessage().contains("rate limit"));
+        verify(httpClient, times(1)).sendAsync(any(), any());
+    }
+
+    @Test
+    void testRateLimiter_QueuesRequestsAtTargetRate() throws Exception {
+        respondWith(200, WEATHER_JSON);
+        RateLimiter rateLimiter = new RateLimiter(10, 1, Duration.ofSeconds(5));
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper(), rateLimiter,
+                RetryPolicy.NONE, null, null);
+
+        long start = System.nanoTime();
+        CompletableFuture<WeatherData> first = client.getCurrentWeatherByCoordinatesAsync(55.75, 37.62);
+        CompletableFuture<WeatherData> second = client.getCurrentWeatherByCoordinatesAsync(55.75, 37.62);
+        CompletableFuture<WeatherData> third = client.getCurrentWeatherByCoordinatesAsync(55.75, 37.62);
+        // Queued requests do not block the caller
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(100).toNanos());
+        assertFalse(third.isDone());
+
+        CompletableFuture.allOf(first, second, third).get();
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(190).toNanos());
+        verify(httpClient, times(3)).sendAsync(any(), any());
+    }
+
+    @Test
+    void testRetry_RetriesTransientFailuresUntilSuccess() throws WeatherApiException {
+        HttpResponse<byte[]> unavailable = response(503, "", Map.of());
+        HttpResponse<byte[]> ok = response(200, WEATHER_JSON, Map.of());
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("Connection reset")))
+                .thenReturn(CompletableFuture.completedFuture(unavailable))
+                .thenReturn(CompletableFuture.completedFuture(ok));
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper(), null,
+                new RetryPolicy(2, Duration.ofMillis(1), Duration.ofMillis(10), Duration.ofSeconds(5)), null, null);
+
+        assertEquals("Moscow", client.getCurrentWeatherByCoordinates(55.75, 37.62).getName());
+        verify(httpClient, times(3)).sendAsync(any(), any());
+    }
+
+    @Test
+    void testRetry_GivesUpAfterMaxRetries() throws WeatherApiException {
+        respondWith(502, "Bad Gateway");
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper(), null,
+                new RetryPolicy(2, Duration.ofMillis(1), Duration.ofMillis(10), Duration.ofSeconds(5)), null, null);
+
+        WeatherApiException error = assertThrows(WeatherApiException.class,
+                () -> client.getCurrentWeatherByCoordinates(55.75, 37.62));
+        assertEquals("OpenWeather server error. Try again later.", error.getMessage());
+        verify(httpClient, times(3)).sendAsync(any(), any());
+    }
+
+    @Test
+    void testRetry_DoesNotRetryClientErrors() throws WeatherApiException {
+        respondWith(401, "{\"cod\":401}");
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper(), null,
+                new RetryPolicy(2, Duration.ofMillis(1), Duration.ofMillis(10), Duration.ofSeconds(5)), null, null);
+
+        assertThrows(WeatherApiException.class, () -> client.getCurrentWeatherByCoordinates(55.75, 37.62));
+        verify(httpClient, times(1)).sendAsync(any(), any());
+    }
+
+    @Test
+    void testRetry_HonorsRetryAfterWithinDeadline() throws WeatherApiException {
+        HttpResponse<byte[]> tooManyRequests = response(429, "", Map.of("Retry-After", "1"));
+        HttpResponse<byte[]> ok = response(200, WEATHER_JSON, Map.of());
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(tooManyRequests))
+                .thenReturn(CompletableFuture.completedFuture(ok));
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper(), null,
+                new RetryPolicy(2, Duration.ofMillis(1), Duration.ofMillis(10), Duration.ofSeconds(5)), null, null);
+
+        long start = System.nanoTime();
+        assertNotNull(client.getCurrentWeatherByCoordinates(55.75, 37.62));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(950));
+    }
+
+    @Test
+    void testRetry_SkipsRetryThatWouldMissDeadline() throws WeatherApiException {
+        HttpResponse<byte[]> tooManyRequests = response(429, "", Map.of("Retry-After", "60"));
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(tooManyRequests));
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper(), null,
+                new RetryPolicy(2, Duration.ofMillis(1), Duration.ofMillis(10), Duration.ofSeconds(5)), null, null);
+
+        long start = System.nanoTime();
+        WeatherApiException error = assertThrows(WeatherApiException.class,
+                () -> client.getCurrentWeatherByCoordinates(55.75, 37.62));
+        assertEquals("Request limit exceeded. Try again later.", error.getMessage());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        verify(httpClient, times(1)).sendAsync(any(), any());
+    }
+
+    @Test
+    @Timeout(10)
+    void testRetry_SkipsRetryWithHugeRetryAfter() throws WeatherApiException {
+        HttpResponse<byte[]> tooManyRequests = response(429, "", Map.of("Retry-After", "99999999999"));
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(tooManyRequests));
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper(), null,
+                new RetryPolicy(2, Duration.ofMillis(1), Duration.ofMillis(10), Duration.ofSeconds(5)), null, null);
+
+        assertThrows(WeatherApiException.class, () -> client.getCurrentWeatherByCoordinates(55.75, 37.62));
+        verify(httpClient, times(1)).sendAsync(any(), any());
+    }
+
+    @Test
+    void testDeadline_RejectsRequestThatWouldQueuePastIt() throws WeatherApiException {
+        respondWith(200, WEATHER_JSON);
+        RateLimiter rateLimiter = new RateLimiter(1, 1, Duration.ofSeconds(10));
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper(), rateLimiter,
+                new RetryPolicy(2, Duration.ofMillis(1), Duration.ofMillis(10), Duration.ofMillis(200)), null, null);
+
+        assertNotNull(client.getCurrentWeatherByCoordinates(55.75, 37.62));
+        long start = System.nanoTime();
+        WeatherApiException error = assertThrows(WeatherApiException.class,
+                () -> client.getCurrentWeatherByCoordinates(55.75, 37.62));
+        assertTrue(error.getMessage().contains("rate limit"));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+        verify(httpClient, times(1)).sendAsync(any(), any());
+    }
+
+    @Test
+    void testDeadline_RequestTimeoutExcludesQueueTime() throws Exception {
+        respondWith(200, WEATHER_JSON);
+        RateLimiter rateLimiter = new RateLimiter(5, 1, Duration.ofSeconds(5));
+        rateLimiter.reserve(); // the next request waits 200 ms for a token
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper(), rateLimiter,
+                new RetryPolicy(0, Duration.ofMillis(1), Duration.ofMillis(10), Duration.ofSeconds(1)), null, null);
+
+        assertNotNull(client.getCurrentWeatherByCoordinatesAsync(55.75, 37.62).get(5, TimeUnit.SECONDS));
+        ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).sendAsync(request.capture(), any());
+        Duration timeout = request.getValue().timeout().orElseThrow();
+        assertTrue(timeout.compareTo(Duration.ofMillis(850)) <= 0, "timeout " + timeout);
+    }
+
+    @Test
+    void testCircuitBreaker_OpensOnServerErrorsAndFailsFast() throws WeatherApiException {
+        respondWith(503, "");
+        CircuitBreaker circuitBreaker = new CircuitBreaker(0.5, 4, Duration.ofMinutes(1));
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper(), null,
+                RetryPolicy.NONE, circuitBreaker, null);
+
+        for (int i = 0; i < 2; i++) {
+            WeatherApiException error = assertThrows(WeatherApiException.class,
+                    () -> client.getCurrentWeatherByCoordinates(55.75, 37.62));
+            assertEquals("OpenWeather server error. Try again later.", error.getMessage());
+        }
+        assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+
+        assertThrows(CircuitBreakerOpenException.class, () -> client.getCurrentWeatherByCoordinates(55.75, 37.62));
+        assertThrows(CircuitBreakerOpenException.class, () -> client.getCoordinatesByCityName("Moscow"));
+        verify(httpClient, times(2)).sendAsync(any(), any());
+    }
+
+    @Test
+    void testCircuitBreaker_ClientErrorsDoNotOpen() throws WeatherApiException {
+        respondWith(401, "{\"cod\":401}");
+        CircuitBreaker circuitBreaker = new CircuitBreaker(0.5, 4, Duration.ofMinutes(1));
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper(), null,
+                RetryPolicy.NONE, circuitBreaker, null);
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(WeatherApiException.class, () -> client.getCurrentWeatherByCoordinates(55.75, 37.62));
+        }
+        assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+        verify(httpClient, times(5)).sendAsync(any(), any());
+    }
+
+    @Test
+    void testCircuitBreaker_QueuedRequestsDoNotHoldHalfOpenProbes() throws Exception {
+        respondWith(200, WEATHER_JSON);
+        CircuitBreaker circuitBreaker = new CircuitBreaker(0.5, 2, Duration.ofMillis(20));
+        circuitBreaker.onFailure(circuitBreaker.tryAcquire());
+        assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+        RateLimiter rateLimiter = new RateLimiter(20, 1, Duration.ofSeconds(5));
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper(), rateLimiter,
+                RetryPolicy.NONE, circuitBreaker, null);
+        Thread.sleep(50);
+        rateLimiter.reserve(); // empty the bucket
+
+        List<CompletableFuture<WeatherData>> queued = List.of(
+                client.getCurrentWeatherByCoordinatesAsync(55.75, 37.62),
+                client.getCurrentWeatherByCoordinatesAsync(55.75, 37.62),
+                client.getCurrentWeatherByCoordinatesAsync(55.75, 37.62));
+        assertEquals(CircuitBreakerState.HALF_OPEN, circuitBreaker.getState());
+        long probe = circuitBreaker.tryAcquire();
+        assertNotEquals(CircuitBreaker.REJECTED, probe);
+        circuitBreaker.onIgnored(probe);
+
+        for (CompletableFuture<WeatherData> future : queued) {
+            assertNotNull(future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void testHedging_SlowRequestIsHedgedAndLoserCancelled() throws WeatherApiException {
+        HttpResponse<byte[]> ok = response(200, WEATHER_JSON, Map.of());
+        CompletableFuture<HttpResponse<byte[]>> slow = new CompletableFuture<>();
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(slow)
+                .thenReturn(CompletableFuture.completedFuture(ok));
+        HedgingPolicy hedgingPolicy = primedHedgingPolicy(1.0);
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper(), null,
+                RetryPolicy.NONE, null, hedgingPolicy);
+
+        assertEquals("Moscow", client.getCurrentWeatherByCoordinates(55.75, 37.62).getName());
+        assertThrows(CancellationException.class, () -> slow.get(5, TimeUnit.SECONDS));
+        verify(httpClient, times(2)).sendAsync(any(), any());
+    }
+
+    @Test
+    void testHedging_RespectsBudget() throws WeatherApiException {
+        HttpResponse<byte[]> ok = response(200, WEATHER_JSON, Map.of());
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(invocation -> CompletableFuture.supplyAsync(() -> ok,
+                        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS)));
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper(), null,
+                RetryPolicy.NONE, null, primedHedgingPolicy(0.5));
+
+        // Half a credit per request: only the second request may be hedged
+        client.getCurrentWeatherByCoordinates(55.75, 37.62);
+        verify(httpClient, times(1)).sendAsync(any(), any());
+        client.getCurrentWeatherByCoordinates(55.75, 37.62);
+        verify(httpClient, times(3)).sendAsync(any(), any());
+    }
+
+    @Test
+    void testHedging_GeocodingIsNotHedged() throws WeatherApiException {
+        HttpResponse<byte[]> ok = response(200, "[{\"name\":\"Moscow\",\"lat\":55.75,\"lon\":37.62}]", Map.of());
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(invocation -> CompletableFuture.supplyAsync(() -> ok,
+                        CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)));
+        WeatherApiClient client = new WeatherApiClient("key", httpClient, new ObjectMapper(), null,
+                RetryPolicy.NONE, null, primedHedgingPolicy(1.0));
+
+        assertEquals(55.75, client.getCoordinatesByCityName("Moscow").lat);
+        verify(httpClient, times(1)).sendAsync(any(), any());
+    }
+
+    private static HedgingPolicy primedHedgingPolicy(double budget) {
+        HedgingPolicy hedgingPolicy = new HedgingPolicy(95, budget);
+        for (int i = 0; i < HedgingPolicy.MIN_SAMPLES; i++) {
+            hedgingPolicy.recordLatency(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return hedgingPolicy;
+    }
+
+    private void respondWith(int statusCode, String body) {
+        HttpResponse<byte[]> response = response(statusCode, body, Map.of());
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(response));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<byte[]> response(int statusCode, String body, Map<String, String> headers) {
+        HttpResponse<byte[]> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(statusCode);
+        when(response.body()).thenReturn(body.getBytes(StandardCharsets.UTF_8));
+        Map<String, List<String>> headerMap = new HashMap<>();
+        headers.forEach((name, value) -> headerMap.put(name, List.of(value)));
+        when(response.headers()).thenReturn(HttpHeaders.of(headerMap, (name, value) -> true));
+        return response;
+    }
+}